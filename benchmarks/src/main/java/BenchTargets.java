@@ -0,0 +1,134 @@
+import snake.bench.GameTargets;
+
+import java.awt.Graphics;
+import java.util.Arrays;
+import java.util.Random;
+
+// Default-package bridge between the JMH benchmarks (package snake.bench) and the game classes.
+public class BenchTargets implements GameTargets {
+    // Scene size of the default 900x640 window
+    public static final int WIDTH = 675;
+    public static final int HEIGHT = 640;
+
+    // Autopilot matches tried by recordMatch before giving up
+    private static final int MAX_ATTEMPTS = 1000;
+    private static final Snake.Direction[] DIRECTIONS = Snake.Direction.values();
+
+    private final int cols, rows, players, length;
+    private final GameEngine engine;
+    private final Random pilot;
+    // Recorded match: its first state, and per step and snake the direction it turned to (-1 for none)
+    private GameEngine.Keyframe matchStart;
+    private byte[] turns;
+    private int replayed;
+    private ScenePanel scene;
+    private BotController seeker, survival;
+
+    public static GameTargets create(int cols, int rows, int players, int length, long seed) {
+        return new BenchTargets(cols, rows, players, length, seed);
+    }
+
+    private BenchTargets(int cols, int rows, int players, int length, long seed) {
+        this.cols = cols;
+        this.rows = rows;
+        this.players = players;
+        this.length = length;
+        this.engine = new GameEngine(cols, rows, seed);
+        this.pilot = new Random(~seed);
+        restart();
+    }
+
+    private void restart() {
+        engine.start(players, GameEngine.baseSpeedFor("NORMAL"), 1, length);
+    }
+
+    // One autopilot step; a finished match is restarted
+    private void autopilotStep() {
+        if (engine.isGameOver()) restart();
+        for (int i = 0; i < players; i++) {
+            if (engine.isAlive(i)) BatchRunner.steer(engine, i, pilot);
+        }
+        engine.step();
+    }
+
+    @Override
+    public void recordMatch(int steps) {
+        byte[] t = new byte[steps * players];
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            restart();
+            GameEngine.Keyframe start = engine.saveKeyframe();
+            Arrays.fill(t, (byte) -1);
+            int n = 0;
+            while (n < steps && !engine.isGameOver()) {
+                for (int i = 0; i < players; i++) {
+                    if (!engine.isAlive(i)) continue;
+                    Snake.Direction before = engine.getDir(i);
+                    BatchRunner.steer(engine, i, pilot);
+                    if (engine.getDir(i) != before) t[n * players + i] = (byte) engine.getDir(i).ordinal();
+                }
+                engine.step();
+                n++;
+            }
+            if (n == steps) {
+                matchStart = start;
+                turns = t;
+                rewind();
+                return;
+            }
+        }
+        throw new IllegalStateException("no autopilot match on " + cols + "x" + rows + " lasted " + steps + " steps");
+    }
+
+    @Override
+    public void rewind() {
+        engine.loadKeyframe(matchStart);
+        replayed = 0;
+    }
+
+    @Override
+    public long step() {
+        int base = replayed++ * players;
+        for (int i = 0; i < players; i++) {
+            if (turns[base + i] >= 0) engine.setDirection(i + 1, DIRECTIONS[turns[base + i]]);
+        }
+        engine.step();
+        return engine.getSteps();
+    }
+
+    @Override
+    public boolean isFree(int x, int y) {
+        return engine.isFree(x, y);
+    }
+
+    @Override
+    public int spawnFood() {
+        return engine.respawnFood(0);
+    }
+
+    @Override
+    public int botDecide(boolean survivalBot) {
+        if (seeker == null) {
+            BoardSearch search = new BoardSearch(engine);
+            seeker = new FoodSeekerBot(search);
+            survival = new SurvivalBot(search);
+        }
+        Snake.Direction d = (survivalBot ? survival : seeker).decide(engine, 0);
+        return d == null ? -1 : d.ordinal();
+    }
+
+    @Override
+    public void prepareFrame(int steps) {
+        for (int n = 0; n < steps; n++) autopilotStep();
+        scene = new ScenePanel(0, 0, WIDTH, HEIGHT);
+        scene.setSize(WIDTH, HEIGHT);
+        scene.showFrame(engine.snapshot());
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        scene.paint(g);
+    }
+
+    @Override public int cols() { return cols; }
+    @Override public int rows() { return rows; }
+}
@@ -0,0 +1,39 @@
+package snake.bench;
+
+import java.awt.Graphics;
+
+// Hot paths of the game as seen by the benchmarks.
+// The game classes live in the default package, which JMH cannot host and named packages cannot import,
+// so the default-package BenchTargets builds implementations of this interface and the benchmarks
+// look it up reflectively once per trial (see Targets.create).
+public interface GameTargets {
+    // Plays autopilot matches until one lasts that many steps and keeps it for step() and rewind();
+    // throws IllegalStateException when none does
+    void recordMatch(int steps);
+
+    // Back to the start of the recorded match
+    void rewind();
+
+    // One GameEngine.step() of the recorded match, the snakes turning where the autopilot turned them
+    // (replayed, so neither the steering nor a restart is part of the step)
+    long step();
+
+    // GameEngine.isFree on a cell (the occupancy-grid lookup behind every collision check)
+    boolean isFree(int x, int y);
+
+    // One food respawn through GameEngine's refill path: the food is eaten and its slot refilled from the free cells
+    int spawnFood();
+
+    // One bot decision for snake 0 on the current board (FoodSeekerBot, or SurvivalBot when survival is set);
+    // returns the direction ordinal, -1 for keep going
+    int botDecide(boolean survival);
+
+    // Runs that many steps (so snakes unfold to their full length) and freezes the result as the frame to paint
+    void prepareFrame(int steps);
+
+    // ScenePanel.paint of the prepared frame into the given graphics
+    void paint(Graphics g);
+
+    int cols();
+    int rows();
+}
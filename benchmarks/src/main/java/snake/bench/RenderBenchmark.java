@@ -0,0 +1,47 @@
+package snake.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Full ScenePanel.paint of one frame into an offscreen image (no dirty-rect clipping).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RenderBenchmark {
+    @Param({"33x30", "200x200", "1000x1000"})
+    public String board;
+
+    @Param({"1", "4"})
+    public int players;
+
+    @Param({"4", "64", "1024"})
+    public int length;
+
+    private GameTargets game;
+    private BufferedImage image;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] size = Targets.parseBoard(board);
+        game = Targets.create(size[0], size[1], players, length, 42L);
+        game.prepareFrame(length);
+        image = new BufferedImage(675, 640, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        Graphics2D g = image.createGraphics();
+        try {
+            game.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+}
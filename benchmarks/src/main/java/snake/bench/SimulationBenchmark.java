@@ -0,0 +1,72 @@
+package snake.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Simulation hot paths: occupancy lookups, food spawning and bot decisions (engine steps: StepBenchmark).
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SimulationBenchmark {
+    @Param({"33x30", "200x200", "1000x1000"})
+    public String board;
+
+    @Param({"1", "4"})
+    public int players;
+
+    @Param({"4", "64", "1024"})
+    public int length;
+
+    private GameTargets game;
+
+    // Random cells to probe, cycled so the lookup pattern is not predictable
+    private int[] probeX, probeY;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] size = Targets.parseBoard(board);
+        game = Targets.create(size[0], size[1], players, length, 42L);
+        game.prepareFrame(length);
+
+        Random rng = new Random(7);
+        probeX = new int[4096];
+        probeY = new int[4096];
+        for (int i = 0; i < probeX.length; i++) {
+            probeX[i] = rng.nextInt(size[0]);
+            probeY[i] = rng.nextInt(size[1]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean isOccupied() {
+        int i = probe++ & (probeX.length - 1);
+        return !game.isFree(probeX[i], probeY[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int spawnFood() {
+        return game.spawnFood();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int seekerBot() {
+        return game.botDecide(false);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int survivalBot() {
+        return game.botDecide(true);
+    }
+}
@@ -0,0 +1,49 @@
+package snake.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// GameEngine.step on its own. Autopilot matches are short (a few steps to a few hundred on the small
+// boards), so steering and restarting them would dominate a throughput loop. Instead one recorded match
+// is replayed: each iteration rewinds it outside the timed region and times its first STEPS steps
+// (the score is per step).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 2000, batchSize = StepBenchmark.STEPS)
+@Measurement(iterations = 2000, batchSize = StepBenchmark.STEPS)
+public class StepBenchmark {
+    // Steps per timed batch; every parameter combination has an autopilot match this long
+    static final int STEPS = 200;
+
+    @Param({"33x30", "200x200", "1000x1000"})
+    public String board;
+
+    @Param({"1", "4"})
+    public int players;
+
+    @Param({"4", "64", "1024"})
+    public int length;
+
+    private GameTargets game;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] size = Targets.parseBoard(board);
+        game = Targets.create(size[0], size[1], players, length, 42L);
+        game.recordMatch(STEPS);
+    }
+
+    @Setup(Level.Iteration)
+    public void rewind() {
+        game.rewind();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public long stepSnake() {
+        return game.step();
+    }
+}
@@ -0,0 +1,26 @@
+package snake.bench;
+
+final class Targets {
+    private Targets() {}
+
+    static GameTargets create(int cols, int rows, int players, int length, long seed) {
+        // JMH cannot exclude parameter combinations, so the ones that make no sense fail their setup
+        if ((long) players * length > (long) cols * rows) {
+            throw new IllegalArgumentException(players + " snakes of length " + length + " do not fit on a "
+                    + cols + "x" + rows + " board");
+        }
+        try {
+            return (GameTargets) Class.forName("BenchTargets")
+                    .getMethod("create", int.class, int.class, int.class, int.class, long.class)
+                    .invoke(null, cols, rows, players, length, seed);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchTargets is missing from the benchmark classpath", e);
+        }
+    }
+
+    // "COLSxROWS" -> {cols, rows}
+    static int[] parseBoard(String board) {
+        String[] parts = board.split("x");
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+}
@@ -0,0 +1,141 @@
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+// Active rendering for a ScenePanel (Main --render=active): a heavyweight Canvas with a triple-buffered
+// BufferStrategy, drawn by its own thread instead of through Swing's coalesced repaint() on the EDT.
+// The render thread wakes once per display refresh while there is something new to show, takes the
+// latest published frame, draws it with a SceneRenderer and flips. With interpolation on, snakes are
+// drawn between the last two ticks according to the simulation clock, which costs one tick of latency.
+public class ActiveScene extends Canvas {
+    private static final int BUFFERS = 3;
+    private static final int FALLBACK_REFRESH_HZ = 60;
+
+    private final ScenePanel scene;
+    private final SceneRenderer renderer;
+    private final boolean interpolate;
+
+    private volatile Thread renderThread;
+    private volatile boolean dirty = true;
+
+    // Last two distinct frames seen (render thread only)
+    private GameFrame shown, before;
+
+    public ActiveScene(ScenePanel scene, boolean interpolate) {
+        this.scene = scene;
+        this.renderer = new SceneRenderer(scene.getMetrics());
+        this.interpolate = interpolate;
+        setBackground(Color.BLACK);
+        setIgnoreRepaint(true); // AWT paint events only mark the scene dirty
+        setFocusable(false);    // keys keep going to the ScenePanel
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) { invalidateFrame(); }
+        });
+    }
+
+    // Something visible changed: draw again at the next refresh
+    public void invalidateFrame() {
+        dirty = true;
+        LockSupport.unpark(renderThread);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(BUFFERS);
+        Thread t = new Thread(this::renderLoop, "RenderLoop");
+        t.setDaemon(true);
+        renderThread = t;
+        t.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        Thread t = renderThread;
+        renderThread = null;
+        LockSupport.unpark(t);
+        if (t != null) {
+            try { t.join(1000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void paint(Graphics g) { invalidateFrame(); }
+
+    @Override
+    public void update(Graphics g) { invalidateFrame(); }
+
+    // Paced to the display refresh rate; parks until invalidated when nothing moves
+    private void renderLoop() {
+        long period = refreshPeriodNanos();
+        long next = System.nanoTime();
+        while (renderThread == Thread.currentThread()) {
+            boolean again = false;
+            if (dirty) {
+                dirty = false;
+                again = render();
+            }
+
+            if (!again && !dirty) {
+                LockSupport.park(this);
+                next = System.nanoTime(); // first frame after idling goes out at once
+                continue;
+            }
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(this, wait);
+            else next = System.nanoTime(); // missed the slot: no burst to catch up
+        }
+    }
+
+    // Draws and flips one frame; true while a tween is still in progress
+    private boolean render() {
+        int w = getWidth(), h = getHeight();
+        BufferStrategy strategy = getBufferStrategy();
+        if (w <= 0 || h <= 0 || strategy == null) return false;
+
+        // Both kept frames stay held so the game loop does not refill them under the tween
+        GameFrame f = scene.holdFrame();
+        if (f != shown) {
+            if (before != null) before.release();
+            before = f != null && shown != null && f.getSteps() == shown.getSteps() + 1 ? shown : null;
+            if (before == null && shown != null) shown.release();
+            shown = f;
+        } else if (f != null) {
+            f.release(); // already held as shown
+        }
+        double alpha = 1;
+        if (interpolate && before != null && f.getTime() > before.getTime() && !f.isGameOver()) {
+            alpha = Math.max(0, Math.min(1, (scene.getLogicalTimeMillis() - f.getTime()) / (f.getTime() - before.getTime())));
+        }
+
+        try {
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        scene.render(renderer, g, getGraphicsConfiguration(), w, h, null, alpha < 1 ? before : null, alpha);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+            scene.frameShown();
+        } catch (IllegalStateException e) {
+            return false; // buffers went away with the peer (window closing)
+        }
+        return alpha < 1;
+    }
+
+    private long refreshPeriodNanos() {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        int hz = gc == null ? DisplayMode.REFRESH_RATE_UNKNOWN : gc.getDevice().getDisplayMode().getRefreshRate();
+        return 1_000_000_000L / (hz > 0 ? hz : FALLBACK_REFRESH_HZ);
+    }
+}
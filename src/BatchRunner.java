@@ -0,0 +1,85 @@
+import java.util.Random;
+
+// Headless batch mode: plays N seeded matches back to back on GameEngine, as fast as the CPU allows.
+// Usage: java BatchRunner [matches] [players] [difficulty] [seed] [cols] [rows] [food]
+// Snakes follow a random walk, or bots with -Dsnake.bot=seeker|survival.
+public class BatchRunner {
+    // Safety net for matches where nobody ever dies
+    public static final long MAX_STEPS = 200_000;
+
+    public record MatchResult(long seed, int winner, int[] scores, int[] lengths, long steps, long timeMillis) {}
+
+    public static void main(String[] args) {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String difficulty = args.length > 2 ? args[2] : "NORMAL";
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        int cols = args.length > 4 ? Integer.parseInt(args[4]) : GameEngine.DEFAULT_COLS;
+        int rows = args.length > 5 ? Integer.parseInt(args[5]) : GameEngine.DEFAULT_ROWS;
+        int food = args.length > 6 ? Integer.parseInt(args[6]) : 1;
+
+        MatchStats stats = new MatchStats(players);
+        long t0 = System.nanoTime();
+        for (int m = 0; m < matches; m++) {
+            stats.add(runMatch(seed + m, players, difficulty, cols, rows, food));
+        }
+        stats.print(System.out, (System.nanoTime() - t0) / 1e9);
+    }
+
+    // Plays one match to the end with a simple random-walk autopilot (or the -Dsnake.bot bots) driving every snake
+    public static MatchResult runMatch(long seed, int players, String difficulty, int cols, int rows, int food) {
+        GameEngine engine = new GameEngine(cols, rows, seed);
+        engine.start(players, GameEngine.baseSpeedFor(difficulty), food);
+        Random pilot = new Random(~seed);
+
+        String bot = System.getProperty("snake.bot");
+        if (bot != null) {
+            BoardSearch search = new BoardSearch(engine);
+            for (int i = 0; i < players; i++) engine.setBot(engine.getId(i), BotController.create(bot, search));
+        }
+
+        while (!engine.isGameOver() && engine.getSteps() < MAX_STEPS) {
+            if (bot == null) {
+                for (int i = 0; i < engine.getPlayers(); i++) {
+                    if (engine.isAlive(i)) steer(engine, i, pilot);
+                }
+            }
+            if (!engine.step()) break;
+        }
+
+        int[] scores = new int[players];
+        int[] lengths = new int[players];
+        for (int i = 0; i < players; i++) {
+            scores[i] = engine.getScore(i);
+            lengths[i] = engine.getLength(i);
+        }
+        return new MatchResult(seed, engine.getWinner(), scores, lengths, engine.getSteps(), engine.getTime());
+    }
+
+    // Keep going straight unless blocked (or on a random 10% turn), then pick a random free direction
+    static void steer(GameEngine engine, int i, Random pilot) {
+        Snake.Direction dir = engine.getDir(i);
+        if (isFreeAhead(engine, i, dir) && pilot.nextInt(10) != 0) return;
+
+        Snake.Direction[] all = Snake.Direction.values();
+        int offset = pilot.nextInt(all.length);
+        for (int k = 0; k < all.length; k++) {
+            Snake.Direction nd = all[(offset + k) % all.length];
+            if (!Snake.isOpposite(dir, nd) && isFreeAhead(engine, i, nd)) {
+                engine.setDirection(engine.getId(i), nd);
+                return;
+            }
+        }
+    }
+
+    private static boolean isFreeAhead(GameEngine engine, int i, Snake.Direction d) {
+        int x = engine.getHead(i) % engine.getCols();
+        int y = engine.getHead(i) / engine.getCols();
+        return switch (d) {
+            case UP -> engine.isFree(x, y - 1);
+            case DOWN -> engine.isFree(x, y + 1);
+            case LEFT -> engine.isFree(x - 1, y);
+            case RIGHT -> engine.isFree(x + 1, y);
+        };
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+// Breadth-first search and flood fill over an engine's board for the bots, on reusable primitive buffers.
+// Visited cells are marked with a search number instead of being cleared, and every search stops after
+// a node budget, so one decision costs about the same on a 33x30 board as on a 2000x2000 one.
+// One instance per engine, shared by all its bots (they run on the same simulation thread).
+public class BoardSearch {
+    public static final int DEFAULT_BUDGET = 2048;
+
+    private static final Snake.Direction[] DIRS = Snake.Direction.values();
+
+    private final GameEngine engine;
+    private final int cols;
+    private final int budget;
+    private final int[] visited; // cell -> number of the search that last reached it
+    private int search;
+
+    // Search frontier: cell and the first move that led to it
+    private final int[] queue;
+    private final byte[] queueMove;
+
+    public BoardSearch(GameEngine engine) {
+        this(engine, DEFAULT_BUDGET);
+    }
+
+    public BoardSearch(GameEngine engine, int budget) {
+        this.engine = engine;
+        this.cols = engine.getCols();
+        this.budget = budget;
+        this.visited = new int[engine.getCols() * engine.getRows()];
+        this.queue = new int[budget + 4];
+        this.queueMove = new byte[budget + 4];
+    }
+
+    public GameEngine getEngine() { return engine; }
+    public int getBudget() { return budget; }
+
+    // Free neighbour of cell in direction d, or -1 when it is off the board or taken by a snake
+    public int neighbour(int cell, Snake.Direction d) {
+        int x = cell % cols, y = cell / cols;
+        switch (d) {
+            case UP -> y--;
+            case DOWN -> y++;
+            case LEFT -> x--;
+            case RIGHT -> x++;
+        }
+        return engine.isFree(x, y) ? engine.cellIndex(x, y) : -1;
+    }
+
+    // First move of a shortest path from head to the nearest food, or null when none is found within the budget.
+    // The move straight back (blocked) is never taken.
+    public Snake.Direction pathToFood(int head, Snake.Direction blocked) {
+        int mark = nextSearch();
+        visited[head] = mark;
+        int tail = 0;
+        for (Snake.Direction d : DIRS) {
+            if (d == blocked) continue;
+            int n = neighbour(head, d);
+            if (n < 0 || visited[n] == mark) continue;
+            if (engine.hasFood(n)) return d;
+            visited[n] = mark;
+            queue[tail] = n;
+            queueMove[tail++] = (byte) d.ordinal();
+        }
+        for (int at = 0; at < tail; at++) {
+            int cell = queue[at];
+            for (Snake.Direction d : DIRS) {
+                int n = neighbour(cell, d);
+                if (n < 0 || visited[n] == mark) continue;
+                if (engine.hasFood(n)) return DIRS[queueMove[at]];
+                if (tail >= budget) return null;
+                visited[n] = mark;
+                queue[tail] = n;
+                queueMove[tail++] = queueMove[at];
+            }
+        }
+        return null;
+    }
+
+    // Number of free cells reachable from start (itself free), counting up to limit (capped by the budget)
+    public int reachable(int start, int limit) {
+        limit = Math.min(limit, budget);
+        int mark = nextSearch();
+        visited[start] = mark;
+        queue[0] = start;
+        int tail = 1;
+        for (int at = 0; at < tail && tail < limit; at++) {
+            int cell = queue[at];
+            for (Snake.Direction d : DIRS) {
+                int n = neighbour(cell, d);
+                if (n < 0 || visited[n] == mark) continue;
+                visited[n] = mark;
+                queue[tail++] = n;
+                if (tail == limit) break;
+            }
+        }
+        return tail;
+    }
+
+    private int nextSearch() {
+        if (++search == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            search = 1;
+        }
+        return search;
+    }
+}
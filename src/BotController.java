@@ -0,0 +1,15 @@
+// Drives one computer-controlled snake. The engine asks right before each of the snake's moves,
+// on the simulation thread, and applies the answer through setDirection like a key press.
+public interface BotController {
+    // New direction for snake index i, or null to keep going straight
+    Snake.Direction decide(GameEngine engine, int i);
+
+    // "seeker" (default) or "survival"; bots made from the same search share its buffers,
+    // so they must all play on that search's engine
+    static BotController create(String kind, BoardSearch search) {
+        return switch (kind) {
+            case "survival" -> new SurvivalBot(search);
+            default -> new FoodSeekerBot(search);
+        };
+    }
+}
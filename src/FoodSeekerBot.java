@@ -0,0 +1,58 @@
+// Heads for the nearest food along a shortest path (BFS), or greedily when no food is within the search
+// budget, as long as the first move leaves enough room to fit the snake; otherwise it plays like
+// SurvivalBot until the way is clear.
+public class FoodSeekerBot implements BotController {
+    private final BoardSearch search;
+    private final SurvivalBot fallback;
+
+    public FoodSeekerBot(BoardSearch search) {
+        this.search = search;
+        this.fallback = new SurvivalBot(search);
+    }
+
+    @Override
+    public Snake.Direction decide(GameEngine engine, int i) {
+        Snake.Direction dir = engine.getDir(i);
+        int head = engine.getHead(i);
+        int need = Math.min(search.getBudget(), engine.getLength(i) + 1);
+        Snake.Direction d = search.pathToFood(head, opposite(dir));
+        if (d == null) d = towardsNearestFood(engine, head, dir); // food beyond the search budget
+        if (d != null) {
+            int n = search.neighbour(head, d);
+            if (n >= 0 && search.reachable(n, need) >= need) return d == dir ? null : d;
+        }
+        return fallback.decide(engine, i);
+    }
+
+    // Greedy step that closes the larger gap to the food nearest by Manhattan distance, or null without food
+    private Snake.Direction towardsNearestFood(GameEngine engine, int head, Snake.Direction dir) {
+        int cols = engine.getCols();
+        int hx = head % cols, hy = head / cols;
+        int best = -1, bestDist = Integer.MAX_VALUE;
+        for (int k = 0; k < engine.getFoodCount(); k++) {
+            int f = engine.getFood(k);
+            if (f < 0) continue;
+            int dist = Math.abs(f % cols - hx) + Math.abs(f / cols - hy);
+            if (dist < bestDist) { best = f; bestDist = dist; }
+        }
+        if (best < 0) return null;
+
+        int dx = best % cols - hx, dy = best / cols - hy;
+        Snake.Direction horizontal = dx > 0 ? Snake.Direction.RIGHT : Snake.Direction.LEFT;
+        Snake.Direction vertical = dy > 0 ? Snake.Direction.DOWN : Snake.Direction.UP;
+        Snake.Direction first = Math.abs(dx) >= Math.abs(dy) ? horizontal : vertical;
+        Snake.Direction second = first == horizontal ? vertical : horizontal;
+        if (!Snake.isOpposite(dir, first) && search.neighbour(head, first) >= 0) return first;
+        if ((first == horizontal ? dy : dx) != 0 && !Snake.isOpposite(dir, second) && search.neighbour(head, second) >= 0) return second;
+        return null;
+    }
+
+    private static Snake.Direction opposite(Snake.Direction d) {
+        return switch (d) {
+            case UP -> Snake.Direction.DOWN;
+            case DOWN -> Snake.Direction.UP;
+            case LEFT -> Snake.Direction.RIGHT;
+            case RIGHT -> Snake.Direction.LEFT;
+        };
+    }
+}
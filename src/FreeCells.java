@@ -0,0 +1,65 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Set of free board cells with O(1) add, remove and uniform random pick.
+// Cells are kept densely packed in cells[0..size); position[cell] is the cell's slot there (-1 when absent),
+// so removing swaps the last cell into the hole.
+public class FreeCells {
+    private final int[] cells;
+    private final int[] position;
+    private int size;
+
+    public FreeCells(int capacity) {
+        this.cells = new int[capacity];
+        this.position = new int[capacity];
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(position, -1);
+        size = 0;
+    }
+
+    // Marks every cell of the board as free
+    public void fill() {
+        for (int c = 0; c < cells.length; c++) {
+            cells[c] = c;
+            position[c] = c;
+        }
+        size = cells.length;
+    }
+
+    public int size() { return size; }
+    public boolean contains(int cell) { return position[cell] >= 0; }
+
+    public void add(int cell) {
+        if (position[cell] >= 0) return;
+        cells[size] = cell;
+        position[cell] = size++;
+    }
+
+    public void remove(int cell) {
+        int slot = position[cell];
+        if (slot < 0) return;
+        int last = cells[--size];
+        cells[slot] = last;
+        position[last] = slot;
+        position[cell] = -1;
+    }
+
+    // The free cells in their current dense order (the order matters: pick() indexes into it)
+    public int[] toArray() {
+        return Arrays.copyOf(cells, size);
+    }
+
+    // Restores a set saved with toArray(), including its order
+    public void load(int[] saved) {
+        clear();
+        for (int cell : saved) add(cell);
+    }
+
+    // Uniformly random free cell, or -1 when the board is full
+    public int pick(Random rng) {
+        return size == 0 ? -1 : cells[rng.nextInt(size)];
+    }
+}
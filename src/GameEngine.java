@@ -0,0 +1,594 @@
+import java.util.Arrays;
+
+// Pure game state and rules, with no Swing/AWT dependencies.
+// Time is a logical millisecond clock: step() jumps to the next moment a snake is due,
+// so the same seed and inputs always replay the same match, in real time or as fast as the CPU allows.
+public class GameEngine {
+    // Hooks for side effects (sound, UI) that must stay out of the rules
+    public interface Listener {
+        default void onFoodEaten(int playerId) {}
+        default void onGameOver() {}
+        // A direction change took effect; it applies to the move made in step number getSteps()
+        default void onDirectionChanged(int playerId, Snake.Direction dir) {}
+    }
+
+    public static final int START_LENGTH = 4;
+
+    // Direction changes a player can queue ahead; one is applied per move of their snake
+    public static final int INPUT_QUEUE_CAPACITY = 4;
+
+    // Difficulty levels offered by the menu, easiest first
+    public static final String[] DIFFICULTIES = {"EASY", "NORMAL", "HARD", "INSANE"};
+
+    // Board (Grid); the classic board is 33x30, any size works
+    public static final int DEFAULT_COLS = 33;
+    public static final int DEFAULT_ROWS = 30;
+
+    // Largest board, in cells (2000x2000). The per-cell arrays take about 14 bytes a cell, ~56 MB at this size.
+    public static final int MAX_CELLS = 4_000_000;
+
+    private final int cols;
+    private final int rows;
+
+    // Occupancy grid: number of body segments on each cell (index = y*cols + x, same packing as SnakeBody)
+    private final int[] occupancy;
+
+    // Cells with no snake and no food, kept in step with occupancy so food spawns in O(1)
+    private final FreeCells free;
+
+    // Players (snakes), as parallel arrays indexed by player id - 1
+    private final SnakeStore snakes = new SnakeStore();
+    private InputQueue[] inputs = new InputQueue[0];
+    private BotController[] bots = new BotController[0]; // null for human players
+
+    // Food items (packed cell index per slot, -1 while a slot waits for a free cell)
+    private int[] foods = new int[0];
+    private final boolean[] hasFood;
+    private int missingFood;
+    private final long seed;
+    private final GameRandom rng;
+
+    // Speed
+    private final long minSpeedMillis = 60;
+
+    // Start parameters, kept so a match can be recorded and re-created
+    private long baseSpeedMillis;
+    private int startLength;
+
+    // Logical clock (ms since start) and step counter
+    private long time;
+    private long steps;
+    private boolean gameOver;
+
+    // Move resolution scratch: one bit per cell for next heads, cells wanted by two or more heads,
+    // and tails that leave this step. Only the words touched by a step are cleared afterwards.
+    private final long[] headBits, clashBits, tailBits;
+    private int[] movers = new int[0];     // indices of the snakes due this step
+    private int[] nextHeads = new int[0];  // per snake, -1 past a wall
+    private boolean[] doomed = new boolean[0];
+
+    private Listener[] listeners = new Listener[0];
+    private GameMetrics metrics; // optional, null when not instrumented
+    private long inputStamp;     // earliest key press applied since the last snapshot(), 0 for none
+
+    public GameEngine(int cols, int rows, long seed) {
+        int cells = cellCount(cols, rows);
+        this.cols = cols;
+        this.rows = rows;
+        this.occupancy = new int[cells];
+        this.free = new FreeCells(cells);
+        this.hasFood = new boolean[cells];
+        this.headBits = new long[(cells + 63) >>> 6];
+        this.clashBits = new long[headBits.length];
+        this.tailBits = new long[headBits.length];
+        this.seed = seed;
+        this.rng = new GameRandom(seed);
+    }
+
+    // cols * rows, for a board size the engine accepts
+    public static int cellCount(int cols, int rows) {
+        if (cols < 1 || rows < 1) throw new IllegalArgumentException("bad board size " + cols + "x" + rows);
+        try {
+            int cells = Math.multiplyExact(cols, rows);
+            if (cells <= MAX_CELLS) return cells;
+        } catch (ArithmeticException ignored) {}
+        throw new IllegalArgumentException("board " + cols + "x" + rows + " has more than " + MAX_CELLS + " cells");
+    }
+
+    public static long baseSpeedFor(String difficulty) {
+        return switch (difficulty) {
+            case "EASY" -> 160;
+            case "HARD" -> 90;
+            case "INSANE" -> 70;
+            default -> 120; // NORMAL
+        };
+    }
+
+    public void addListener(Listener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // === Setup ===
+    public void start(int players, long baseSpeedMillis) {
+        start(players, baseSpeedMillis, 1);
+    }
+
+    public void start(int players, long baseSpeedMillis, int foodCount) {
+        start(players, baseSpeedMillis, foodCount, START_LENGTH);
+    }
+
+    public void start(int players, long baseSpeedMillis, int foodCount, int startLength) {
+        this.baseSpeedMillis = baseSpeedMillis;
+        this.startLength = startLength;
+        rng.setState(seed);
+
+        int[] starts = new int[players];
+        Snake.Direction[] dirs = new Snake.Direction[players];
+        spawnPoints(starts, dirs);
+
+        Arrays.fill(occupancy, 0);
+        Arrays.fill(hasFood, false);
+        free.fill();
+        snakes.reset(players);
+        inputs = new InputQueue[players];
+        bots = new BotController[players];
+        for (int i = 0; i < players; i++) {
+            // All segments start stacked on the start cell and unfold as the snake moves
+            snakes.init(i, dirs[i], baseSpeedMillis, startLength);
+            for (int k = 0; k < startLength; k++) {
+                snakes.addLast(i, starts[i]);
+                occupy(starts[i]);
+            }
+            snakes.setNextStepAt(i, baseSpeedMillis);
+            inputs[i] = new InputQueue(INPUT_QUEUE_CAPACITY);
+        }
+
+        time = 0;
+        inputStamp = 0;
+        steps = 0;
+        gameOver = false;
+
+        foods = new int[Math.max(1, foodCount)];
+        Arrays.fill(foods, -1);
+        missingFood = foods.length;
+        refillFood();
+    }
+
+    // Start cell and direction per snake. Up to four players get the classic spots facing the middle;
+    // more are spread over a grid of cells across the board, rows alternately heading right and left.
+    private void spawnPoints(int[] starts, Snake.Direction[] dirs) {
+        int n = starts.length;
+        if (n <= 4) {
+            int[] classic = {
+                    cellIndex(cols/4, rows/2),
+                    cellIndex(3*cols/4, rows/2),
+                    cellIndex(cols/2, rows/4),
+                    cellIndex(cols/2, 3*rows/4)
+            };
+            Snake.Direction[] classicDirs = {
+                    Snake.Direction.RIGHT, Snake.Direction.LEFT,
+                    Snake.Direction.DOWN,  Snake.Direction.UP
+            };
+            System.arraycopy(classic, 0, starts, 0, n);
+            System.arraycopy(classicDirs, 0, dirs, 0, n);
+            return;
+        }
+        int gx = (int) Math.ceil(Math.sqrt((double) n * cols / rows));
+        int gy = (n + gx - 1) / gx;
+        if (gx > cols || gy > rows) {
+            throw new IllegalArgumentException(n + " snakes do not fit on a " + cols + "x" + rows + " board");
+        }
+        for (int i = 0; i < n; i++) {
+            int gxi = i % gx, gyi = i / gx;
+            starts[i] = cellIndex((2 * gxi + 1) * cols / (2 * gx), (2 * gyi + 1) * rows / (2 * gy));
+            dirs[i] = gyi % 2 == 0 ? Snake.Direction.RIGHT : Snake.Direction.LEFT;
+        }
+    }
+
+    // === Input ===
+    // Safe from any thread: the change is queued and applied on one of the snake's next moves.
+    // Each move takes the first queued change that is valid against the direction in effect then,
+    // so quick key sequences between ticks play out one per move instead of overwriting each other.
+    public void queueDirection(int playerId, Snake.Direction nd) {
+        queueDirection(playerId, nd, 0);
+    }
+
+    // Same, with the System.nanoTime() of the key press for the input latency metrics
+    public void queueDirection(int playerId, Snake.Direction nd, long pressedAtNanos) {
+        InputQueue[] q = inputs;
+        if (playerId >= 1 && playerId <= q.length) q[playerId - 1].offer(nd, pressedAtNanos);
+    }
+
+    // Hands the player's snake to a bot, asked for a direction right before each of its moves (null = human again).
+    // Call after start(), from the simulation thread.
+    public void setBot(int playerId, BotController bot) {
+        if (playerId >= 1 && playerId <= bots.length) bots[playerId - 1] = bot;
+    }
+
+    // Largest player count spawnPoints() can place on a board of this size
+    public static int maxPlayers(int cols, int rows) {
+        return Math.max(4, (cols / 2) * (rows / 2));
+    }
+
+    // Simulation thread only: applies the change immediately
+    public void setDirection(int playerId, Snake.Direction nd) {
+        if (playerId >= 1 && playerId <= snakes.count()) turn(playerId - 1, nd);
+    }
+
+    // Applies a turn that is neither a no-op nor a reversal; returns whether it did
+    private boolean turn(int i, Snake.Direction nd) {
+        Snake.Direction dir = snakes.dir(i);
+        if (!snakes.isAlive(i) || dir == nd || Snake.isOpposite(dir, nd)) return false;
+        snakes.setDir(i, nd);
+        for (Listener l : listeners) l.onDirectionChanged(i + 1, nd);
+        return true;
+    }
+
+    private void noteInput(long pressedAt) {
+        if (pressedAt == 0) return;
+        if (metrics != null) metrics.getInputNanos().record(System.nanoTime() - pressedAt);
+        if (inputStamp == 0 || pressedAt < inputStamp) inputStamp = pressedAt;
+    }
+
+    // === Simulation ===
+    // Earliest logical time at which some snake moves (Long.MAX_VALUE when nothing can move)
+    public long nextDueAt() {
+        return gameOver ? Long.MAX_VALUE : snakes.earliestDue();
+    }
+
+    // Advances the clock to the next due moment and moves every snake due then. Returns false when nothing moved.
+    public boolean step() {
+        long due = nextDueAt();
+        if (due == Long.MAX_VALUE) return false;
+        long t0 = metrics != null ? System.nanoTime() : 0;
+
+        time = due;
+        int n = snakes.count();
+        if (movers.length != n) {
+            movers = new int[n];
+            nextHeads = new int[n];
+            doomed = new boolean[n];
+        }
+
+        // Every due snake turns and aims at its next cell, all on the same board
+        int moving = 0;
+        for (int i = 0; i < n; i++) {
+            if (!snakes.isAlive(i) || snakes.nextStepAt(i) > time) continue;
+            Snake.Direction nd;
+            while ((nd = inputs[i].poll()) != null) {
+                if (turn(i, nd)) { // one queued turn per move, the rest wait for the next ones
+                    noteInput(inputs[i].getLastStamp());
+                    break;
+                }
+            }
+            if (bots[i] != null && (nd = bots[i].decide(this, i)) != null) turn(i, nd);
+            movers[moving++] = i;
+            nextHeads[i] = nextHead(i);
+        }
+
+        // Then all of them move (or die) together, so the outcome does not depend on array order
+        boolean died = resolveMoves(moving);
+        for (int k = 0; k < moving; k++) {
+            int i = movers[k];
+            if (doomed[i]) snakes.setAlive(i, false);
+            else moveSnake(i, nextHeads[i]);
+            snakes.setNextStepAt(i, time + snakes.speed(i));
+        }
+        if (died) checkGameOver();
+        if (missingFood > 0) refillFood();
+        steps++;
+        if (metrics != null) metrics.getStepNanos().record(System.nanoTime() - t0);
+        return true;
+    }
+
+    // Runs every step due up to the given logical time. Returns how many steps ran.
+    public int advanceTo(long targetTime) {
+        int n = 0;
+        while (nextDueAt() <= targetTime && step()) n++;
+        return n;
+    }
+
+    // Cell the snake's head moves to, -1 past a wall
+    private int nextHead(int i) {
+        int hx = snakes.head(i) % cols;
+        int hy = snakes.head(i) / cols;
+        switch (snakes.dir(i)) {
+            case UP -> hy -= 1;
+            case DOWN -> hy += 1;
+            case LEFT -> hx -= 1;
+            case RIGHT -> hx += 1;
+        }
+        return hx < 0 || hx >= cols || hy < 0 || hy >= rows ? -1 : cellIndex(hx, hy);
+    }
+
+    // Marks in doomed[] the movers that die this step; returns true when any does.
+    // A snake dies when its next cell is past a wall, wanted by another head too (both die),
+    // or covered by a body - except a tail that leaves this step, which only happens when
+    // its snake survives and does not eat. Deaths can keep a tail in place, so the body
+    // check repeats until nothing changes (rarely more than one extra pass).
+    private boolean resolveMoves(int moving) {
+        for (int k = 0; k < moving; k++) {
+            int c = nextHeads[movers[k]];
+            if (c < 0) continue;
+            long bit = 1L << c;
+            if ((headBits[c >>> 6] & bit) != 0) clashBits[c >>> 6] |= bit;
+            else headBits[c >>> 6] |= bit;
+        }
+
+        boolean died = false;
+        for (int k = 0; k < moving; k++) {
+            int i = movers[k];
+            int c = nextHeads[i];
+            doomed[i] = c < 0 || (clashBits[c >>> 6] & (1L << c)) != 0;
+            died |= doomed[i];
+            if (!doomed[i] && !hasFood[c]) setBit(tailBits, snakes.tail(i));
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int k = 0; k < moving; k++) {
+                int i = movers[k];
+                if (doomed[i]) continue;
+                int c = nextHeads[i];
+                int leaving = (tailBits[c >>> 6] & (1L << c)) != 0 ? 1 : 0;
+                if (occupancy[c] - leaving > 0) {
+                    doomed[i] = true;
+                    died = changed = true;
+                    if (!hasFood[c]) clearBit(tailBits, snakes.tail(i));
+                }
+            }
+        }
+
+        for (int k = 0; k < moving; k++) {
+            int i = movers[k];
+            int c = nextHeads[i];
+            if (c >= 0) headBits[c >>> 6] = clashBits[c >>> 6] = 0;
+            tailBits[snakes.tail(i) >>> 6] = 0;
+        }
+        return died;
+    }
+
+    private static void setBit(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    private static void clearBit(long[] bits, int cell) {
+        bits[cell >>> 6] &= ~(1L << cell);
+    }
+
+    private void moveSnake(int i, int head) {
+        // Food?
+        boolean ate = hasFood[head];
+
+        // Add head
+        snakes.addFirst(i, head);
+        occupy(head);
+
+        if (ate) {
+            snakes.setScore(i, snakes.score(i) + 1);
+            accelerate(i);
+            for (Listener l : listeners) l.onFoodEaten(i + 1);
+            eatFood(head);
+        } else {
+            // Move tail (to advance forward)
+            vacate(snakes.removeLast(i));
+        }
+    }
+
+    private void accelerate(int i) {
+        long ns = Math.max(minSpeedMillis, (long)(snakes.speed(i) * 0.94)); // ~6%
+        snakes.setSpeed(i, ns);
+    }
+
+    private boolean isOccupied(int cell) {
+        return occupancy[cell] > 0;
+    }
+
+    private void occupy(int cell) {
+        if (occupancy[cell]++ == 0) free.remove(cell);
+    }
+
+    private void vacate(int cell) {
+        if (--occupancy[cell] == 0 && !hasFood[cell]) free.add(cell);
+    }
+
+    // The eaten item's slot is refilled by step() once every due snake has moved, so food never appears
+    // mid-step on a cell that move resolution did not see (the head now covers this cell, so it is not free)
+    private void eatFood(int cell) {
+        hasFood[cell] = false;
+        for (int k = 0; k < foods.length; k++) {
+            if (foods[k] == cell) {
+                foods[k] = -1;
+                missingFood++;
+                break;
+            }
+        }
+    }
+
+    // Fills empty food slots from the free-cell set; slots stay empty only while the board is full
+    private void refillFood() {
+        long t0 = metrics != null ? System.nanoTime() : 0;
+        for (int k = 0; k < foods.length && missingFood > 0 && free.size() > 0; k++) {
+            if (foods[k] >= 0) continue;
+            int cell = free.pick(rng);
+            free.remove(cell);
+            hasFood[cell] = true;
+            foods[k] = cell;
+            missingFood--;
+        }
+        if (metrics != null) metrics.getSpawnNanos().record(System.nanoTime() - t0);
+    }
+
+    // Food in slot k is eaten and the slot refilled as after a step, except that no head stays on
+    // the cell, so it goes back to the free set (benchmarks). Returns the new cell, -1 if none.
+    public int respawnFood(int k) {
+        int cell = foods[k];
+        if (cell >= 0) {
+            eatFood(cell);
+            free.add(cell);
+        }
+        refillFood();
+        return foods[k];
+    }
+
+    private void checkGameOver() {
+        if (snakes.aliveCount() <= 1) {
+            gameOver = true;
+            for (Listener l : listeners) l.onGameOver();
+        }
+    }
+
+    // === Keyframes ===
+    // Full copy of the mutable state, enough to resume the match exactly (used by replay seeking).
+    // The occupancy grid and food flags are rebuilt from the bodies and food slots when loading.
+    public static final class Keyframe {
+        private final long time, steps, rngState;
+        private final boolean gameOver;
+        private final int[] ids, scores;
+        private final Snake.Direction[] dirs;
+        private final boolean[] alive;
+        private final long[] speeds, nextStepAt;
+        private final int[][] bodies;
+        private final int[] foods, freeCells;
+        private final int missingFood;
+
+        private Keyframe(GameEngine e) {
+            int n = e.snakes.count();
+            time = e.time;
+            steps = e.steps;
+            rngState = e.rng.getState();
+            gameOver = e.gameOver;
+            ids = new int[n];
+            scores = new int[n];
+            dirs = new Snake.Direction[n];
+            alive = new boolean[n];
+            speeds = new long[n];
+            bodies = new int[n][];
+            nextStepAt = new long[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = i + 1;
+                scores[i] = e.snakes.score(i);
+                dirs[i] = e.snakes.dir(i);
+                alive[i] = e.snakes.isAlive(i);
+                speeds[i] = e.snakes.speed(i);
+                nextStepAt[i] = e.snakes.nextStepAt(i);
+                bodies[i] = new int[e.snakes.length(i)];
+                for (int k = 0; k < bodies[i].length; k++) bodies[i][k] = e.snakes.cell(i, k);
+            }
+            foods = e.foods.clone();
+            freeCells = e.free.toArray();
+            missingFood = e.missingFood;
+        }
+
+        public long getSteps() { return steps; }
+    }
+
+    public Keyframe saveKeyframe() {
+        return new Keyframe(this);
+    }
+
+    public void loadKeyframe(Keyframe k) {
+        int n = k.ids.length;
+        time = k.time;
+        steps = k.steps;
+        rng.setState(k.rngState);
+        gameOver = k.gameOver;
+
+        Arrays.fill(occupancy, 0);
+        Arrays.fill(hasFood, false);
+        snakes.reset(n);
+        inputs = new InputQueue[n];
+        if (bots.length != n) bots = new BotController[n];
+        for (int i = 0; i < n; i++) {
+            snakes.init(i, k.dirs[i], k.speeds[i], k.bodies[i].length);
+            for (int cell : k.bodies[i]) {
+                snakes.addLast(i, cell);
+                occupancy[cell]++;
+            }
+            snakes.setAlive(i, k.alive[i]);
+            snakes.setScore(i, k.scores[i]);
+            snakes.setNextStepAt(i, k.nextStepAt[i]);
+            inputs[i] = new InputQueue(INPUT_QUEUE_CAPACITY);
+        }
+        foods = k.foods.clone();
+        for (int cell : foods) if (cell >= 0) hasFood[cell] = true;
+        missingFood = k.missingFood;
+        free.load(k.freeCells);
+    }
+
+    // === Queries ===
+    public long getSeed() { return seed; }
+    public long getBaseSpeedMillis() { return baseSpeedMillis; }
+    public int getStartLength() { return startLength; }
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public int cellIndex(int x, int y) { return y * cols + x; }
+
+    // True when (x, y) is on the board and no snake covers it
+    public boolean isFree(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows && !isOccupied(cellIndex(x, y));
+    }
+
+    public int getPlayers() { return snakes.count(); }
+    public int getId(int i) { return i + 1; }
+    public boolean isAlive(int i) { return snakes.isAlive(i); }
+    public int getScore(int i) { return snakes.score(i); }
+    public Snake.Direction getDir(int i) { return snakes.dir(i); }
+    public long getSpeedMillis(int i) { return snakes.speed(i); }
+    public int getHead(int i) { return snakes.head(i); }
+    public int getLength(int i) { return snakes.length(i); }
+    public int getBodyCell(int i, int k) { return snakes.cell(i, k); }
+
+    public int getFoodCount() { return foods.length; }
+    public int getFood(int k) { return foods[k]; } // -1 for an empty slot
+    public boolean hasFood(int cell) { return hasFood[cell]; }
+    public long getTime() { return time; }
+    public long getSteps() { return steps; }
+    public boolean isGameOver() { return gameOver; }
+
+    // Copies the current state into an immutable frame for renderers on other threads.
+    // The frame carries the earliest key press applied since the previous snapshot, which is handed out once.
+    public GameFrame snapshot() {
+        int n = snakes.count();
+        int[] ids = new int[n];
+        boolean[] alive = new boolean[n];
+        int[] scores = new int[n];
+        int[][] bodies = new int[n][];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+            alive[i] = snakes.isAlive(i);
+            scores[i] = snakes.score(i);
+            bodies[i] = new int[snakes.length(i)];
+            for (int k = 0; k < bodies[i].length; k++) bodies[i][k] = snakes.cell(i, k);
+        }
+        long pressedAt = inputStamp;
+        inputStamp = 0;
+        return new GameFrame(cols, rows, time, steps, ids, alive, scores, bodies, foods.clone(), gameOver, pressedAt);
+    }
+
+    // Same as snapshot(), but rewrites reuse in place instead of allocating a frame per tick.
+    // The caller makes sure no reader holds reuse (see ScenePanel's frame pool).
+    public GameFrame snapshot(GameFrame reuse) {
+        long pressedAt = inputStamp;
+        inputStamp = 0;
+        reuse.refill(this, pressedAt);
+        return reuse;
+    }
+
+    // Player id of the last snake alive, or the best score when everybody died (0 on a tie)
+    public int getWinner() {
+        int best = -1, winner = 0;
+        for (int i = 0; i < snakes.count(); i++) {
+            int rank = snakes.isAlive(i) ? Integer.MAX_VALUE : snakes.score(i);
+            if (rank > best) { best = rank; winner = i + 1; }
+            else if (rank == best) winner = 0;
+        }
+        return winner;
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Picture of the board after a tick.
+// The simulation thread fills one per tick and publishes it through a volatile field;
+// renderers on the EDT read it without locks. A published frame is never written while a reader holds it:
+// frames from the constructor or GameEngine.snapshot() are never written again, and the game loop recycles
+// its frames (GameEngine.snapshot(reuse)) only once they are superseded and no reader holds them.
+// Readers of a recycled frame take it with hold() and give it back with release() (see ScenePanel.holdFrame).
+public final class GameFrame {
+    private int cols;
+    private int rows;
+    private long time;
+    private long steps;
+    private int players;
+    private int[] ids;
+    private boolean[] alive;
+    private int[] scores;
+    private int[] lengths;
+    private int[][] bodies; // packed cells, head first (arrays may be longer than the body)
+    private int foodCount;
+    private int[] foods; // -1 for an empty slot
+    private boolean gameOver;
+    private long inputStamp; // System.nanoTime() of the earliest key press first shown in this frame, 0 for none
+
+    private final AtomicInteger holds = new AtomicInteger();
+
+    public GameFrame(int cols, int rows, long time, long steps, int[] ids, boolean[] alive,
+                     int[] scores, int[][] bodies, int[] foods, boolean gameOver, long inputStamp) {
+        this.cols = cols;
+        this.rows = rows;
+        this.time = time;
+        this.steps = steps;
+        this.players = ids.length;
+        this.ids = ids;
+        this.alive = alive;
+        this.scores = scores;
+        this.bodies = bodies;
+        this.lengths = new int[bodies.length];
+        for (int i = 0; i < bodies.length; i++) lengths[i] = bodies[i].length;
+        this.foodCount = foods.length;
+        this.foods = foods;
+        this.gameOver = gameOver;
+        this.inputStamp = inputStamp;
+    }
+
+    // Empty frame for GameEngine.snapshot(reuse) to fill
+    GameFrame() {
+        this(0, 0, 0, 0, new int[0], new boolean[0], new int[0], new int[0][], new int[0], false, 0);
+    }
+
+    // Rewrites this frame from the engine; arrays are kept while they are big enough and grow with headroom,
+    // so a steady game allocates nothing here
+    void refill(GameEngine e, long inputStamp) {
+        cols = e.getCols();
+        rows = e.getRows();
+        time = e.getTime();
+        steps = e.getSteps();
+        gameOver = e.isGameOver();
+        this.inputStamp = inputStamp;
+
+        players = e.getPlayers();
+        if (ids.length < players) {
+            ids = new int[players];
+            alive = new boolean[players];
+            scores = new int[players];
+            lengths = new int[players];
+            bodies = Arrays.copyOf(bodies, players);
+        }
+        for (int i = 0; i < players; i++) {
+            ids[i] = e.getId(i);
+            alive[i] = e.isAlive(i);
+            scores[i] = e.getScore(i);
+            int n = e.getLength(i);
+            int[] body = bodies[i];
+            if (body == null || body.length < n) body = bodies[i] = new int[body == null ? n : Math.max(n, 2 * body.length)];
+            for (int k = 0; k < n; k++) body[k] = e.getBodyCell(i, k);
+            lengths[i] = n;
+        }
+
+        foodCount = e.getFoodCount();
+        if (foods.length < foodCount) foods = new int[foodCount];
+        for (int k = 0; k < foodCount; k++) foods[k] = e.getFood(k);
+    }
+
+    // === Readers of recycled frames ===
+    void hold() { holds.incrementAndGet(); }
+    void release() { holds.decrementAndGet(); }
+    boolean isHeld() { return holds.get() > 0; }
+
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public long getTime() { return time; }
+    public long getSteps() { return steps; }
+    public int getPlayers() { return players; }
+    public int getId(int i) { return ids[i]; }
+    public boolean isAlive(int i) { return alive[i]; }
+    public int getScore(int i) { return scores[i]; }
+    public int getLength(int i) { return lengths[i]; }
+    public int getBodyCell(int i, int k) { return bodies[i][k]; }
+    public int getHead(int i) { return bodies[i][0]; }
+    public int getFoodCount() { return foodCount; }
+    public int getFood(int k) { return foods[k]; }
+    public boolean isGameOver() { return gameOver; }
+    public long getInputStamp() { return inputStamp; }
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Tick-level instrumentation for one game session (a new game gets a new instance instead of a reset,
+// so a previous loop still winding down never writes into it).
+// Each counter has a single writer: the engine (step/spawn latency, key press to applied turn) and the GameLoop
+// (lateness, published frames, allocation rate) run on the loop thread; paint latency, painted frames and
+// key press to painted frame on the EDT.
+// Readers (HUD, file dump) see a possibly slightly stale view, which is fine for diagnostics.
+public class GameMetrics {
+    // Number of lines() (the HUD reserves room for them)
+    public static final int LINES = 8;
+
+    private final LatencyHistogram stepNanos = new LatencyHistogram();
+    private final LatencyHistogram spawnNanos = new LatencyHistogram();
+    private final LatencyHistogram paintNanos = new LatencyHistogram();
+    private final LatencyHistogram latenessNanos = new LatencyHistogram(); // how late the loop ran a due step
+    private final LatencyHistogram inputNanos = new LatencyHistogram();    // key press -> turn applied by a step
+    private final LatencyHistogram shownNanos = new LatencyHistogram();    // key press -> first frame painted with it
+
+    private volatile long framesPublished;
+    private volatile long framesPainted;
+
+    // Allocation rate of the loop thread, sampled by the loop itself
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private long lastAllocBytes = -1, lastAllocAt;
+    private volatile double allocBytesPerSec = -1;
+
+    public LatencyHistogram getStepNanos() { return stepNanos; }
+    public LatencyHistogram getSpawnNanos() { return spawnNanos; }
+    public LatencyHistogram getPaintNanos() { return paintNanos; }
+    public LatencyHistogram getLatenessNanos() { return latenessNanos; }
+    public LatencyHistogram getInputNanos() { return inputNanos; }
+    public LatencyHistogram getShownNanos() { return shownNanos; }
+
+    public void framePublished() { framesPublished++; }
+    public void framePainted() { framesPainted++; }
+
+    public long getFramesPublished() { return framesPublished; }
+    public long getFramesPainted() { return framesPainted; }
+
+    // Frames the loop published that Swing coalesced away before they were painted
+    public long getFramesSkipped() { return Math.max(0, framesPublished - framesPainted); }
+
+    // Call from the thread to measure (the GameLoop); -1 when the JVM cannot report allocations
+    public void sampleAllocation() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean mx) || !mx.isThreadAllocatedMemorySupported()) return;
+        long bytes = mx.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long now = System.nanoTime();
+        if (lastAllocBytes >= 0 && now > lastAllocAt) {
+            allocBytesPerSec = (bytes - lastAllocBytes) * 1e9 / (now - lastAllocAt);
+        }
+        lastAllocBytes = bytes;
+        lastAllocAt = now;
+    }
+
+    public double getAllocBytesPerSec() { return allocBytesPerSec; }
+
+    // Human-readable lines (latencies in microseconds) for the HUD and the dump file
+    public List<String> lines() {
+        List<String> out = new ArrayList<>();
+        out.add("step  us " + stepNanos.summary(1e3) + " n " + stepNanos.getCount());
+        out.add("spawn us " + spawnNanos.summary(1e3) + " n " + spawnNanos.getCount());
+        out.add("paint us " + paintNanos.summary(1e3));
+        out.add("late  us " + latenessNanos.summary(1e3));
+        out.add("key->step ms " + inputNanos.summary(1e6) + " n " + inputNanos.getCount());
+        out.add("key->paint ms " + shownNanos.summary(1e6));
+        out.add("frames " + framesPainted + " painted / " + getFramesSkipped() + " skipped");
+        double alloc = allocBytesPerSec;
+        out.add(alloc < 0 ? "alloc n/a" : String.format("alloc %.1f KB/s (loop)", alloc / 1024));
+        return out;
+    }
+
+    // Appends a timestamped block of the current session's lines() to the file every interval, on a daemon thread
+    public static ScheduledExecutorService startDump(Path file, long intervalMillis, Supplier<GameMetrics> current) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MetricsDump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                w.write("# " + Instant.now() + System.lineSeparator());
+                for (String line : current.get().lines()) w.write(line + System.lineSeparator());
+            } catch (IOException e) {
+                System.err.println("metrics dump failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return dumper;
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.Random;
+
+// SplitMix64 generator whose whole state is one long, so keyframes can save and restore it exactly.
+// Extends Random so it drops into every place that takes one (nextInt(bound) etc. build on next(bits)).
+public class GameRandom extends Random {
+    private long state;
+
+    public GameRandom(long seed) {
+        super(0);
+        this.state = seed;
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        this.state = seed; // called by Random's constructor before our field initializer runs
+    }
+
+    @Override
+    protected int next(int bits) {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) (z >>> (64 - bits));
+    }
+
+    public long getState() { return state; }
+    public void setState(long state) { this.state = state; }
+}
@@ -0,0 +1,48 @@
+// One hosted match: a GameEngine plus the clock that maps its logical time onto wall-clock time.
+// A room belongs to exactly one RoomManager worker, which is the only thread that steps its engine
+// and calls its listener, so rooms never share mutable state. Other threads may only queue input
+// and read the state.
+public class GameRoom {
+    public enum State { WAITING, RUNNING, FINISHED, CLOSED }
+
+    // Called on the room's worker thread; the engine may be read (and steered) inside these
+    public interface Listener {
+        default void onTick(GameRoom room) {}
+        default void onFinished(GameRoom room) {}
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {};
+
+    private final long id;
+    private final GameEngine engine;
+    private final Listener listener;
+    private volatile State state = State.WAITING;
+
+    int worker;        // index of the owning RoomManager worker
+
+    // Worker-owned clock
+    long origin;       // wall-clock nanos of logical time 0
+    long dueAtNanos;   // wall-clock nanos of the next step
+    long lagResets;    // times the clock was moved forward instead of catching up
+
+    GameRoom(long id, GameEngine engine, Listener listener) {
+        this.id = id;
+        this.engine = engine;
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    public long getId() { return id; }
+    public State getState() { return state; }
+    public long getLagResets() { return lagResets; }
+
+    // Only safe on the room's worker thread (inside the listener) or once the room is finished
+    public GameEngine getEngine() { return engine; }
+
+    // Any thread
+    public void queueDirection(int playerId, Snake.Direction d) {
+        engine.queueDirection(playerId, d);
+    }
+
+    void setState(State state) { this.state = state; }
+    Listener getListener() { return listener; }
+}
@@ -0,0 +1,352 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Authoritative multiplayer server: one thread runs a headless GameEngine and all sockets (NIO selector).
+// Each connection takes the next free player slot (later ones spectate) and sends one byte per direction
+// change. The clock starts once every slot is taken; after each step the server encodes one DELTA
+// (new heads, removed tails, deaths, scores, moved food), and everything produced in one loop pass is
+// written to each client in a single batch.
+// Usage: java GameServer [port] [players] [difficulty] [cols] [rows] [food]
+//        java GameServer --loopback   (self-check: plays a match against headless clients over 127.0.0.1)
+public class GameServer {
+    // A client that cannot keep up with this much unsent data is disconnected
+    private static final int MAX_PENDING_BYTES = 1 << 20;
+
+    private static final class Client {
+        final SocketChannel channel;
+        final int playerId;
+        ByteBuffer out = ByteBuffer.allocate(8 * 1024);
+
+        Client(SocketChannel channel, int playerId) {
+            this.channel = channel;
+            this.playerId = playerId;
+        }
+    }
+
+    private final GameEngine engine;
+    private final double timeScale; // logical ms per wall-clock ms (1 = real time)
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final List<Client> clients = new ArrayList<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(256);
+    private volatile boolean running = true;
+
+    // State as of the last broadcast, to compute deltas
+    private int[] lastHead, lastLength, lastScore, lastFoods;
+    private boolean[] lastAlive;
+    private ByteBuffer batch = ByteBuffer.allocate(64 * 1024);
+
+    private int nextPlayerId = 1;
+    private long origin = -1; // wall-clock nanos of logical time 0, -1 until every slot is taken
+
+    // The engine must already be started
+    public GameServer(GameEngine engine, int port, double timeScale) throws IOException {
+        this.engine = engine;
+        this.timeScale = timeScale;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        rememberState();
+    }
+
+    public int getPort() { return server.socket().getLocalPort(); }
+    public GameEngine getEngine() { return engine; }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    // Serves until the match is over (and its result sent) or stop() is called
+    public void run() throws IOException {
+        try {
+            while (running) {
+                long wait = 0; // 0 = block until a client does something
+                if (origin >= 0) {
+                    long due = engine.nextDueAt();
+                    if (due == Long.MAX_VALUE) break;
+                    long dueAt = origin + (long) (due * 1_000_000L / timeScale);
+                    wait = Math.max(1, (dueAt - System.nanoTime()) / 1_000_000L);
+                }
+                selector.select(wait);
+                for (SelectionKey key : selector.selectedKeys()) handle(key);
+                selector.selectedKeys().clear();
+
+                if (origin >= 0) {
+                    long now = (long) ((System.nanoTime() - origin) / 1e6 * timeScale);
+                    while (engine.nextDueAt() <= now && engine.step()) putDelta();
+                }
+                if (engine.isGameOver()) {
+                    int start = NetProtocol.begin(batch, NetProtocol.GAME_OVER);
+                    NetProtocol.putVarLong(batch, engine.getWinner());
+                    NetProtocol.end(batch, start);
+                    running = false;
+                }
+                broadcast();
+            }
+            drain();
+        } finally {
+            for (Client c : clients) c.channel.close();
+            server.close();
+            selector.close();
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            SocketChannel ch = server.accept();
+            if (ch == null) return;
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            int playerId = nextPlayerId <= engine.getPlayers() ? nextPlayerId++ : 0;
+            Client c = new Client(ch, playerId);
+            clients.add(c);
+            ch.register(selector, SelectionKey.OP_READ, c);
+
+            ByteBuffer hello = ByteBuffer.allocate(16 + NetProtocol.fullSize(engine));
+            int start = NetProtocol.begin(hello, NetProtocol.WELCOME);
+            NetProtocol.putVarLong(hello, playerId);
+            NetProtocol.end(hello, start);
+            NetProtocol.putFull(hello, engine);
+            hello.flip();
+            enqueue(c, hello);
+            flush(c);
+
+            if (origin < 0 && nextPlayerId > engine.getPlayers()) origin = System.nanoTime();
+            return;
+        }
+        Client c = (Client) key.attachment();
+        if (key.isReadable()) {
+            readBuffer.clear();
+            int n;
+            try {
+                n = c.channel.read(readBuffer);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                disconnect(c);
+                return;
+            }
+            Snake.Direction[] dirs = Snake.Direction.values();
+            for (int i = 0; i < n; i++) {
+                int d = readBuffer.get(i);
+                if (c.playerId > 0 && d >= 0 && d < dirs.length) engine.queueDirection(c.playerId, dirs[d]);
+            }
+        }
+        if (key.isValid() && key.isWritable()) flush(c);
+    }
+
+    // Encodes what changed since the last broadcast into the batch
+    private void putDelta() {
+        ensureBatch(32 + 24 * engine.getPlayers() + 12 * engine.getFoodCount());
+        int start = NetProtocol.begin(batch, NetProtocol.DELTA);
+        NetProtocol.putVarLong(batch, engine.getSteps());
+        NetProtocol.putVarLong(batch, engine.getTime());
+
+        int countAt = batch.position();
+        batch.putInt(0);
+        int entries = 0;
+        for (int i = 0; i < engine.getPlayers(); i++) {
+            int flags = 0;
+            int head = engine.getHead(i), length = engine.getLength(i);
+            if (head != lastHead[i] || length != lastLength[i]) {
+                flags |= NetProtocol.MOVED;
+                if (length == lastLength[i]) flags |= NetProtocol.TAIL_REMOVED;
+            }
+            if (lastAlive[i] && !engine.isAlive(i)) flags |= NetProtocol.DIED;
+            if (engine.getScore(i) != lastScore[i]) flags |= NetProtocol.SCORED;
+            if (flags == 0) continue;
+
+            NetProtocol.putVarLong(batch, i);
+            batch.put((byte) flags);
+            if ((flags & NetProtocol.MOVED) != 0) NetProtocol.putVarLong(batch, head);
+            if ((flags & NetProtocol.SCORED) != 0) NetProtocol.putVarLong(batch, engine.getScore(i));
+            entries++;
+        }
+        batch.putInt(countAt, entries);
+
+        int foodCountAt = batch.position();
+        batch.putInt(0);
+        int moved = 0;
+        for (int k = 0; k < engine.getFoodCount(); k++) {
+            if (engine.getFood(k) == lastFoods[k]) continue;
+            NetProtocol.putVarLong(batch, k);
+            NetProtocol.putVarLong(batch, engine.getFood(k) + 1L);
+            moved++;
+        }
+        batch.putInt(foodCountAt, moved);
+        NetProtocol.end(batch, start);
+        rememberState();
+    }
+
+    private void rememberState() {
+        int n = engine.getPlayers();
+        if (lastHead == null) {
+            lastHead = new int[n];
+            lastLength = new int[n];
+            lastScore = new int[n];
+            lastAlive = new boolean[n];
+            lastFoods = new int[engine.getFoodCount()];
+        }
+        for (int i = 0; i < n; i++) {
+            lastHead[i] = engine.getHead(i);
+            lastLength[i] = engine.getLength(i);
+            lastScore[i] = engine.getScore(i);
+            lastAlive[i] = engine.isAlive(i);
+        }
+        for (int k = 0; k < lastFoods.length; k++) lastFoods[k] = engine.getFood(k);
+    }
+
+    private void ensureBatch(int bytes) {
+        if (batch.remaining() >= bytes) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + bytes));
+        batch.flip();
+        bigger.put(batch);
+        batch = bigger;
+    }
+
+    // Sends this pass's batch to every client with one write each
+    private void broadcast() throws IOException {
+        if (batch.position() == 0) return;
+        batch.flip();
+        for (Client c : new ArrayList<>(clients)) {
+            enqueue(c, batch.duplicate());
+            flush(c);
+        }
+        batch.clear();
+    }
+
+    private void enqueue(Client c, ByteBuffer data) throws IOException {
+        if (c.out.position() + data.remaining() > MAX_PENDING_BYTES) {
+            disconnect(c);
+            return;
+        }
+        if (c.out.remaining() < data.remaining()) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(c.out.capacity() * 2, c.out.position() + data.remaining()));
+            c.out.flip();
+            bigger.put(c.out);
+            c.out = bigger;
+        }
+        c.out.put(data);
+    }
+
+    private void flush(Client c) throws IOException {
+        if (!c.channel.isOpen()) return;
+        c.out.flip();
+        try {
+            c.channel.write(c.out);
+        } catch (IOException e) {
+            disconnect(c);
+            return;
+        } finally {
+            c.out.compact();
+        }
+        SelectionKey key = c.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(c.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    // Gives slow clients a moment to receive the final messages
+    private void drain() throws IOException {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (System.nanoTime() < deadline && clients.stream().anyMatch(c -> c.out.position() > 0 && c.channel.isOpen())) {
+            selector.select(10);
+            for (SelectionKey key : selector.selectedKeys()) {
+                if (key.isValid() && key.isWritable()) flush((Client) key.attachment());
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private void disconnect(Client c) throws IOException {
+        clients.remove(c);
+        c.channel.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--loopback")) {
+            System.exit(loopbackCheck() ? 0 : 1);
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        String difficulty = args.length > 2 ? args[2] : "NORMAL";
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : GameEngine.DEFAULT_COLS;
+        int rows = args.length > 4 ? Integer.parseInt(args[4]) : GameEngine.DEFAULT_ROWS;
+        int food = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+
+        GameEngine engine = new GameEngine(cols, rows, System.nanoTime());
+        engine.start(players, GameEngine.baseSpeedFor(difficulty), food);
+        GameServer server = new GameServer(engine, port, 1.0);
+        System.out.println("Snake server on port " + server.getPort() + ", waiting for " + players + " players");
+        server.run();
+        System.out.println("Match over, winner: " + (engine.getWinner() == 0 ? "draw" : "P" + engine.getWinner()));
+    }
+
+    // Plays a match at 20x speed against headless clients that steer randomly, then checks that
+    // every client rebuilt exactly the server's final board from the deltas
+    private static boolean loopbackCheck() throws Exception {
+        GameEngine engine = new GameEngine(60, 40, 12345L);
+        engine.start(3, GameEngine.baseSpeedFor("NORMAL"), 20);
+        GameServer server = new GameServer(engine, 0, 20.0);
+        Thread serverThread = new Thread(() -> {
+            try { server.run(); } catch (IOException e) { e.printStackTrace(); }
+        }, "GameServer");
+        serverThread.start();
+
+        int clientCount = engine.getPlayers() + 1; // one spectator
+        GameFrame[] finals = new GameFrame[clientCount];
+        Thread[] threads = new Thread[clientCount];
+        for (int c = 0; c < clientCount; c++) {
+            int idx = c;
+            threads[c] = new Thread(() -> {
+                Random rng = new Random(idx);
+                try (NetClient client = new NetClient("127.0.0.1", server.getPort())) {
+                    GameFrame f;
+                    while ((f = client.readUpdate()) != null) {
+                        finals[idx] = f;
+                        if (f.isGameOver()) break;
+                        if (rng.nextInt(4) == 0) client.sendDirection(Snake.Direction.values()[rng.nextInt(4)]);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "LoopbackClient-" + c);
+            threads[c].start();
+        }
+        for (Thread t : threads) t.join(120_000);
+        serverThread.join(10_000);
+
+        GameFrame expected = engine.snapshot();
+        boolean ok = true;
+        for (int c = 0; c < clientCount; c++) {
+            boolean same = finals[c] != null && sameBoard(expected, finals[c]);
+            System.out.println("client " + c + ": " + (same ? "in sync" : "MISMATCH"));
+            ok &= same;
+        }
+        System.out.println("steps " + expected.getSteps() + ", winner " + engine.getWinner() + (ok ? " - loopback OK" : " - loopback FAILED"));
+        return ok;
+    }
+
+    private static boolean sameBoard(GameFrame a, GameFrame b) {
+        if (a.getSteps() != b.getSteps() || a.getPlayers() != b.getPlayers() || a.getFoodCount() != b.getFoodCount()) return false;
+        for (int i = 0; i < a.getPlayers(); i++) {
+            if (a.isAlive(i) != b.isAlive(i) || a.getScore(i) != b.getScore(i) || a.getLength(i) != b.getLength(i)) return false;
+            for (int k = 0; k < a.getLength(i); k++) if (a.getBodyCell(i, k) != b.getBodyCell(i, k)) return false;
+        }
+        for (int k = 0; k < a.getFoodCount(); k++) if (a.getFood(k) != b.getFood(k)) return false;
+        return a.isGameOver() == b.isGameOver();
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded lock-free queue of direction changes for one player.
+// Any thread may offer (keyboard on the EDT, bots, network); the simulation thread polls.
+// Each slot carries a sequence number that tells producers and the consumer whose turn it is,
+// and the System.nanoTime() of the key press (0 when unknown) for latency measurement.
+public class InputQueue {
+    private final int mask;
+    private final byte[] values;
+    private final long[] stamps;
+    private long lastStamp; // consumer only: stamp of the entry poll() returned last
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private static final Snake.Direction[] DIRECTIONS = Snake.Direction.values();
+
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.values = new byte[size];
+        this.stamps = new long[size];
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+    }
+
+    public boolean offer(Snake.Direction d) {
+        return offer(d, 0);
+    }
+
+    // Returns false (and drops the input) when the queue is full
+    public boolean offer(Snake.Direction d, long stampNanos) {
+        long pos = tail.get();
+        int slot;
+        while (true) {
+            slot = (int) (pos & mask);
+            long diff = sequence.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        values[slot] = (byte) d.ordinal();
+        stamps[slot] = stampNanos;
+        sequence.set(slot, pos + 1);
+        return true;
+    }
+
+    // Next queued direction, or null when empty
+    public Snake.Direction poll() {
+        long pos = head.get();
+        int slot;
+        while (true) {
+            slot = (int) (pos & mask);
+            long diff = sequence.get(slot) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) break;
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+        Snake.Direction d = DIRECTIONS[values[slot]];
+        lastStamp = stamps[slot];
+        sequence.set(slot, pos + mask + 1);
+        return d;
+    }
+
+    // Key-press time of the direction poll() returned last (consumer thread only)
+    public long getLastStamp() { return lastStamp; }
+}
@@ -0,0 +1,64 @@
+import java.util.Arrays;
+
+// Log-linear histogram in the spirit of HdrHistogram.
+// Values are bucketed by power of two and each power is split into 32 linear sub-buckets (~3% error),
+// so record() is O(1) and never allocates. One thread records; other threads may read a slightly stale view.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB];
+    private long total;
+    private long sum;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[index(value)]++;
+        total++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    public long getCount() { return total; }
+    public long getMax() { return max; }
+    public double getMean() { return total == 0 ? 0 : (double) sum / total; }
+
+    // Smallest recorded bucket value v such that p percent of the values are <= v
+    public long percentile(double p) {
+        long n = total;
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(max, highestValueAt(i));
+        }
+        return max;
+    }
+
+    // "p50 1.2 p99 3.4 max 9.0" with values divided by unit (e.g. 1000 for ns -> us)
+    public String summary(double unit) {
+        return String.format("p50 %.1f p99 %.1f max %.1f", percentile(50) / unit, percentile(99) / unit, max / unit);
+    }
+
+    private static int index(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((v >> shift) - SUB);
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB) return index;
+        int shift = index / SUB - 1;
+        long sub = index % SUB + SUB;
+        return ((sub + 1) << shift) - 1;
+    }
+}
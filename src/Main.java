@@ -1,29 +1,77 @@
 import javax.swing.*;
 import java.awt.*; // For BorderLayout, Dimension
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Main {
     public static final int WINDOW_WIDTH = 900;
     public static final int WINDOW_HEIGHT = 640;
 
+    // Startup clock: set when Main is initialized, just before main() runs
+    private static final long MAIN_NANOS = System.nanoTime();
+
+    // Usage: java Main [--render=passive|active] [--interpolate] [--startup-report] [--exit-after-first-frame] [width height]
+    // (window size; the board size is chosen in the menu)
+    //   --render=active           draw from a render thread on a triple-buffered canvas instead of Swing repaints
+    //   --interpolate             with active rendering, tween snakes between ticks (adds one tick of latency)
+    //   --startup-report          print the time to the first frame
+    //   --exit-after-first-frame  print it and exit (startup benchmarks, CDS archive training)
     public static void main(String[] args) {
+        boolean activeRendering = false, interpolate = false, report = false, exit = false;
+        List<String> size = new ArrayList<>();
+        for (String arg : args) {
+            switch (arg) {
+                case "--render=active" -> activeRendering = true;
+                case "--render=passive" -> activeRendering = false;
+                case "--interpolate" -> interpolate = true;
+                case "--startup-report" -> report = true;
+                case "--exit-after-first-frame" -> report = exit = true;
+                default -> {
+                    if (arg.startsWith("--")) throw new IllegalArgumentException("unknown option: " + arg);
+                    size.add(arg);
+                }
+            }
+        }
+        int width = size.size() > 1 ? Integer.parseInt(size.get(0)) : WINDOW_WIDTH;
+        int height = size.size() > 1 ? Integer.parseInt(size.get(1)) : WINDOW_HEIGHT;
+
+        // Swing components are created and used on the EDT only
+        boolean active = activeRendering, tween = interpolate, printReport = report, exitAfter = exit;
+        SwingUtilities.invokeLater(() -> createWindow(width, height, active, tween, printReport, exitAfter));
+    }
+
+    private static void createWindow(int width, int height, boolean activeRendering, boolean interpolate,
+                                     boolean report, boolean exit) {
         JFrame window = new JFrame("Snake (Class Style)");
         window.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
-        window.setResizable(false);
+        window.setResizable(true); // the scene scales or scrolls to whatever size it gets
 
         // Proper layout
         window.setLayout(new BorderLayout());
-        window.setPreferredSize(new Dimension(WINDOW_WIDTH, WINDOW_HEIGHT));
+        window.setPreferredSize(new Dimension(width, height));
 
         // Use existing constructors (with parameters)
-        MenuPanel menuPanel = new MenuPanel(0, 0, WINDOW_WIDTH / 4, WINDOW_HEIGHT);
-        menuPanel.setPreferredSize(new Dimension(WINDOW_WIDTH / 4, WINDOW_HEIGHT));
+        MenuPanel menuPanel = new MenuPanel(0, 0, width / 4, height);
+        menuPanel.setPreferredSize(new Dimension(width / 4, height));
 
-        ScenePanel scenePanel = new ScenePanel(0, 0, (WINDOW_WIDTH * 3) / 4, WINDOW_HEIGHT);
-        scenePanel.setPreferredSize(new Dimension((WINDOW_WIDTH * 3) / 4, WINDOW_HEIGHT));
+        ScenePanel scenePanel = new ScenePanel(0, 0, (width * 3) / 4, height, activeRendering, interpolate);
+        scenePanel.setPreferredSize(new Dimension((width * 3) / 4, height));
 
         // Wire menu to scene (start/pause/stop callbacks)
         menuPanel.setScenePanel(scenePanel);
 
+        // What the first frame does not need waits until it is drawn
+        scenePanel.setOnFirstFrame(() -> {
+            if (report) reportFirstFrame();
+            if (exit) System.exit(0);
+            SwingUtilities.invokeLater(() -> {
+                SoundMixer.shared().start(); // only the game window plays sound (not viewers or benchmarks)
+                menuPanel.showInstructions();
+                openHistory(scenePanel, menuPanel);
+            });
+        });
+
         // Add to frame
         window.add(menuPanel, BorderLayout.WEST);
         window.add(scenePanel, BorderLayout.CENTER);
@@ -37,4 +85,27 @@ public class Main {
         scenePanel.setFocusable(true);
         scenePanel.requestFocusInWindow();
     }
+
+    // Saved match results and the menu's leaderboard
+    private static void openHistory(ScenePanel scenePanel, MenuPanel menuPanel) {
+        try {
+            MatchHistory history = MatchHistory.open(MatchHistory.defaultFile());
+            scenePanel.setHistory(history);
+            menuPanel.setHistory(history);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try { history.close(); } catch (IOException e) { System.err.println("match history not closed: " + e.getMessage()); }
+            }, "HistoryClose"));
+        } catch (IOException e) {
+            System.err.println("match history disabled: " + e.getMessage());
+        }
+    }
+
+    // Time to first frame from main() and, when the OS reports it, from JVM start (includes JVM boot and class loading)
+    private static void reportFirstFrame() {
+        long sinceMain = (System.nanoTime() - MAIN_NANOS) / 1_000_000;
+        String sinceStart = ProcessHandle.current().info().startInstant()
+                .map(t -> (System.currentTimeMillis() - t.toEpochMilli()) + " ms after JVM start, ")
+                .orElse("");
+        System.out.println("first frame: " + sinceStart + sinceMain + " ms after main()");
+    }
 }
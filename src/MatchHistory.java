@@ -0,0 +1,251 @@
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Results of every finished match, kept across runs in an append-only memory-mapped log.
+// Header: magic, version. Then one record per match: [int length][payload], where the payload is
+// end time (epoch ms), duration (logical ms, pauses excluded), steps, difficulty index, board size,
+// number of keyboard players, winner, player count and a (color RGB, score) pair per player.
+// The length is stored after the payload, so a record torn by a crash reads as the end of the log;
+// the rest of the mapping is zero-filled and a zero length marks the end too.
+// Matches are appended and indexed on a background writer thread: submit() only hands the record over,
+// so the game loop never waits for the disk. The index keeps the best scores of keyboard players
+// per (difficulty, player count) so leaderboard queries do not scan the log.
+public class MatchHistory implements Closeable {
+    public static final int MAGIC = 0x534E4B48; // "SNKH"
+    public static final int VERSION = 1;
+
+    // Best scores kept per leaderboard (difficulty, player count)
+    public static final int INDEX_DEPTH = 100;
+
+    private static final int HEADER = 8;
+    // Field offsets in a payload; FIXED is its size without the per-player pairs
+    private static final int ENDED_AT = 0, DURATION = 8, STEPS = 16, DIFFICULTY = 24, COLS = 25, ROWS = 29,
+            HUMANS = 33, WINNER = 37, PLAYERS = 41, FIXED = 45;
+    private static final int MIN_MAPPING = 64 * 1024;
+
+    // One finished match
+    public record Match(long endedAt, long durationMillis, long steps, String difficulty, int cols, int rows,
+                       int humans, int winner, int[] colors, int[] scores) {}
+
+    // One leaderboard line: a keyboard player's score in a past match
+    public record Score(int score, int playerId, int rgb, boolean won, long endedAt) {}
+
+    // Index entry: where the match is in the log and which of its players scored
+    private record Entry(int score, int offset, int player) {}
+
+    private final FileChannel channel;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "HistoryWriter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Guarded by this: the mapping, the append position and the index (writer appends, the EDT queries).
+    // Only the writer thread replaces them, so it reads them without the lock and holds it just to publish;
+    // disk work (mapping, page faults while scanning, force) happens outside, and queries never wait for it.
+    private MappedByteBuffer log;
+    private int end;
+    private int matches;
+    private final Map<Long, List<Entry>> index = new HashMap<>();
+
+    private volatile Runnable onChange; // called on the writer thread after a load or an append
+
+    private MatchHistory(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // -Dsnake.history.file=PATH, or history.snkh in ~/.snake
+    public static Path defaultFile() {
+        String file = System.getProperty("snake.history.file");
+        return file != null ? Path.of(file) : Path.of(System.getProperty("user.home"), ".snake", "history.snkh");
+    }
+
+    // Opens (or creates) the log; reading and indexing it happens on the writer thread
+    public static MatchHistory open(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        MatchHistory history = new MatchHistory(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        history.writer.execute(history::load);
+        return history;
+    }
+
+    public void setOnChange(Runnable onChange) { this.onChange = onChange; }
+
+    // Queues a match for writing; never blocks on the disk
+    public void submit(Match match) {
+        if (!writer.isShutdown()) writer.execute(() -> append(match));
+    }
+
+    // Snapshot of the finished game, taken on the thread that owns the engine
+    public static Match matchOf(GameEngine engine, String difficulty, int humans, Color[] colors) {
+        int n = engine.getPlayers();
+        int[] rgb = new int[n], scores = new int[n];
+        for (int i = 0; i < n; i++) {
+            rgb[i] = i < colors.length ? colors[i].getRGB() & 0xFFFFFF : 0;
+            scores[i] = engine.getScore(i);
+        }
+        return new Match(System.currentTimeMillis(), engine.getTime(), engine.getSteps(), difficulty,
+                engine.getCols(), engine.getRows(), humans, engine.getWinner(), rgb, scores);
+    }
+
+    // === Queries ===
+    public synchronized int getMatches() { return matches; }
+
+    // Best scores of keyboard players for the difficulty and player count, best first
+    public synchronized List<Score> leaderboard(String difficulty, int players, int limit) {
+        List<Entry> entries = index.get(key(difficultyIndex(difficulty), players));
+        List<Score> out = new ArrayList<>();
+        if (entries == null || log == null) return out;
+        for (int k = 0; k < Math.min(limit, entries.size()); k++) {
+            Entry e = entries.get(k);
+            int at = e.offset() + 4;
+            int rgb = log.getInt(at + FIXED + e.player() * 8);
+            boolean won = log.getInt(at + WINNER) == e.player() + 1;
+            out.add(new Score(e.score(), e.player() + 1, rgb, won, log.getLong(at + ENDED_AT)));
+        }
+        return out;
+    }
+
+    // The whole match behind a record offset
+    public synchronized Match read(int offset) {
+        if (log == null) throw new IllegalStateException("match history not loaded");
+        ByteBuffer b = log.duplicate().position(offset + 4);
+        long endedAt = b.getLong(), duration = b.getLong(), steps = b.getLong();
+        int difficulty = b.get();
+        int cols = b.getInt(), rows = b.getInt(), humans = b.getInt(), winner = b.getInt(), n = b.getInt();
+        int[] colors = new int[n], scores = new int[n];
+        for (int i = 0; i < n; i++) {
+            colors[i] = b.getInt();
+            scores[i] = b.getInt();
+        }
+        String name = difficulty >= 0 && difficulty < GameEngine.DIFFICULTIES.length ? GameEngine.DIFFICULTIES[difficulty] : "?";
+        return new Match(endedAt, duration, steps, name, cols, rows, humans, winner, colors, scores);
+    }
+
+    // Writes what is queued, then closes the file
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // === Writer thread ===
+    private void load() {
+        try {
+            long size = channel.size();
+            MappedByteBuffer buf = map(Math.max(MIN_MAPPING, size));
+            Map<Long, List<Entry>> loaded = new HashMap<>();
+            int at = HEADER, count = 0;
+            if (size < HEADER) {
+                buf.putInt(0, MAGIC).putInt(4, VERSION); // new file
+            } else {
+                if (buf.getInt(0) != MAGIC) throw new IOException("not a match history file");
+                if (buf.getInt(4) != VERSION) throw new IOException("unsupported history version " + buf.getInt(4));
+                while (at + 4 + FIXED <= buf.capacity()) {
+                    int length = buf.getInt(at);
+                    if (length < FIXED || at + 4 + length > buf.capacity()) break; // end of the log, or a torn record
+                    indexRecord(buf, at, loaded);
+                    count++;
+                    at += 4 + length;
+                }
+            }
+            synchronized (this) {
+                log = buf;
+                end = at;
+                matches = count;
+                index.putAll(loaded);
+            }
+            changed();
+        } catch (IOException e) {
+            System.err.println("match history disabled: " + e.getMessage());
+            writer.shutdown();
+        }
+    }
+
+    private void append(Match m) {
+        MappedByteBuffer buf = log;
+        if (buf == null) return; // load failed
+        try {
+            int at = end, length = FIXED + m.scores().length * 8;
+            if (at + 4 + length > buf.capacity()) buf = map(Math.max(2L * buf.capacity(), at + 4L + length));
+            // Past the published end, so queries do not look at it yet
+            ByteBuffer b = buf.duplicate().position(at + 4);
+            b.putLong(m.endedAt()).putLong(m.durationMillis()).putLong(m.steps());
+            b.put((byte) difficultyIndex(m.difficulty()));
+            b.putInt(m.cols()).putInt(m.rows()).putInt(m.humans()).putInt(m.winner()).putInt(m.scores().length);
+            for (int i = 0; i < m.scores().length; i++) b.putInt(m.colors()[i]).putInt(m.scores()[i]);
+            buf.putInt(at, length); // last, so the record only counts once it is complete
+            synchronized (this) {
+                log = buf;
+                indexRecord(buf, at, index);
+                matches++;
+                end = at + 4 + length;
+            }
+            buf.force();
+            changed();
+        } catch (IOException e) {
+            // Losing the history must not stop the game
+            System.err.println("match not saved: " + e.getMessage());
+        }
+    }
+
+    // Maps the first size bytes of the file (growing it); the old mapping is released by the GC
+    private MappedByteBuffer map(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("history log full");
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    // Adds the keyboard players of the record at offset in log to their leaderboard in index
+    private static void indexRecord(ByteBuffer log, int offset, Map<Long, List<Entry>> index) {
+        int at = offset + 4;
+        int difficulty = log.get(at + DIFFICULTY);
+        int humans = log.getInt(at + HUMANS);
+        int players = log.getInt(at + PLAYERS);
+        List<Entry> entries = index.computeIfAbsent(key(difficulty, players), k -> new ArrayList<>());
+        for (int p = 0; p < Math.min(humans, players); p++) {
+            int score = log.getInt(at + FIXED + p * 8 + 4);
+            if (entries.size() == INDEX_DEPTH && entries.get(INDEX_DEPTH - 1).score() >= score) continue;
+            // Sorted by score, the earlier match first on ties
+            int pos = entries.size();
+            while (pos > 0 && entries.get(pos - 1).score() < score) pos--;
+            entries.add(pos, new Entry(score, offset, p));
+            if (entries.size() > INDEX_DEPTH) entries.remove(INDEX_DEPTH);
+        }
+    }
+
+    private void changed() {
+        Runnable r = onChange;
+        if (r != null) r.run();
+    }
+
+    private static long key(int difficulty, int players) {
+        return ((long) difficulty << 32) | (players & 0xFFFFFFFFL);
+    }
+
+    private static int difficultyIndex(String difficulty) {
+        for (int d = 0; d < GameEngine.DIFFICULTIES.length; d++) {
+            if (GameEngine.DIFFICULTIES[d].equals(difficulty)) return d;
+        }
+        return -1;
+    }
+}
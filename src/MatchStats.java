@@ -0,0 +1,63 @@
+import java.io.PrintStream;
+
+// Aggregated results of many matches.
+// Each worker fills its own instance and they are merged at the end, so workers never share counters.
+public class MatchStats {
+    // Players with a wins line of their own; the rest are summed
+    private static final int LISTED_PLAYERS = 16;
+
+    private final int players;
+    private final long[] wins; // index 0 = draws
+    private long matches;
+    private long steps;
+    private long scoreSum, lengthSum;
+    private int maxScore, maxLength;
+
+    public MatchStats(int players) {
+        this.players = players;
+        this.wins = new long[players + 1];
+    }
+
+    public void add(BatchRunner.MatchResult r) {
+        matches++;
+        steps += r.steps();
+        wins[r.winner()]++;
+        for (int s : r.scores()) {
+            scoreSum += s;
+            maxScore = Math.max(maxScore, s);
+        }
+        for (int l : r.lengths()) {
+            lengthSum += l;
+            maxLength = Math.max(maxLength, l);
+        }
+    }
+
+    public void merge(MatchStats other) {
+        matches += other.matches;
+        steps += other.steps;
+        for (int p = 0; p < wins.length; p++) wins[p] += other.wins[p];
+        scoreSum += other.scoreSum;
+        lengthSum += other.lengthSum;
+        maxScore = Math.max(maxScore, other.maxScore);
+        maxLength = Math.max(maxLength, other.maxLength);
+    }
+
+    public long getMatches() { return matches; }
+    public long getSteps() { return steps; }
+
+    public void print(PrintStream out, double seconds) {
+        long snakes = Math.max(1, matches * players);
+        out.printf("%d matches in %.3f s (%.0f matches/s, %.0f steps/s)%n",
+                matches, seconds, matches / seconds, steps / seconds);
+        out.printf("score  avg %.2f  max %d%n", (double) scoreSum / snakes, maxScore);
+        out.printf("length avg %.2f  max %d%n", (double) lengthSum / snakes, maxLength);
+        int listed = Math.min(players, LISTED_PLAYERS);
+        for (int p = 1; p <= listed; p++) out.printf("P%d wins: %d%n", p, wins[p]);
+        if (players > listed) {
+            long rest = 0;
+            for (int p = listed + 1; p <= players; p++) rest += wins[p];
+            out.printf("P%d-P%d wins: %d%n", listed + 1, players, rest);
+        }
+        out.printf("draws: %d%n", wins[0]);
+    }
+}
@@ -1,24 +1,39 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.util.List;
 
 public class MenuPanel extends JPanel {
     private ScenePanel scenePanel;
 
     private JComboBox<Integer> playersBox;
+    private JComboBox<Integer> botsBox;
     private JComboBox<String> difficultyBox;
+    private JComboBox<String> boardBox;
+    private JComboBox<Integer> foodBox;
     private JButton startBtn, pauseBtn, stopBtn;
 
+    private static final int INSTRUCTIONS_HEIGHT = 230;
+    private JPanel instructionsSlot;
+
     private JButton[] colorBtns = new JButton[4];
-    private Color[] playerColors = new Color[] {
-            new Color(0x1abc9c), new Color(0xe74c3c),
-            new Color(0x3498db), new Color(0xf1c40f)
-    };
+    private Color[] playerColors = ScenePanel.DEFAULT_COLORS.clone();
+
+    // Best scores for the selected difficulty and player count
+    private static final int LEADERBOARD_ROWS = 5;
+    private MatchHistory history;
+    private JTextArea leaderboard;
 
     public void setScenePanel(ScenePanel scenePanel) {
         this.scenePanel = scenePanel;
     }
 
+    public void setHistory(MatchHistory history) {
+        this.history = history;
+        history.setOnChange(() -> SwingUtilities.invokeLater(this::refreshLeaderboard));
+        refreshLeaderboard();
+    }
+
     public MenuPanel(int x, int y, int width, int height) {
         // Bounds are kept for compatibility; layout managers decide the final size
         this.setBounds(x, y, width, height);
@@ -29,58 +44,31 @@ public class MenuPanel extends JPanel {
         this.setComponentOrientation(ComponentOrientation.RIGHT_TO_LEFT);
 
         // ========= Instructions (top) =========
-        JTextArea howto = new JTextArea();
-        howto.setEditable(false);
-        howto.setLineWrap(true);
-        howto.setWrapStyleWord(true);
-        howto.setBackground(new Color(0xF5F5F5));
-        howto.setBorder(BorderFactory.createEmptyBorder(14, 14, 14, 14));
-        howto.setComponentOrientation(ComponentOrientation.LEFT_TO_RIGHT);
-        howto.setFont(howto.getFont().deriveFont(Font.BOLD, 15f));
-        howto.setText(
-                "Welcome to the Snake game!\n" +
-                        "This is a classic game where each player controls a snake in their chosen color.\n" +
-                        "Eat food to grow, avoid collisions, and try to outlast your opponents.\n" +
-                        "The goal is to be the longest snake or the last one remaining in the game.\n\n" +
-                        "Game Instructions — Step by Step:\n" +
-                        "1) Select the number of players.\n" +
-                        "2) Choose a difficulty level.\n" +
-                        "3) Click the color button to choose a color for each player.\n" +
-                        "4) Press Start to begin.\n\n" +
-                        "Objective: Eat food, grow longer, and avoid collisions.\n" +
-                        "Each player competes to defeat the others — the last one alive or with the highest score wins.\n" +
-                        "Do not crash into walls, yourself, or other players!\n\n" +
-                        "Controls:\n" +
-                        "• Player 1: Arrow keys ← ↑ → ↓\n" +
-                        "• Player 2: W , A , S , D\n" +
-                        "• Player 3: T , F , G , H\n" +
-                        "• Player 4: I , J , K , L\n" +
-                        "Space — Pause | Reset — Restart the game."
-        );
-
-        JScrollPane howtoScroll = new JScrollPane(howto);
-        howtoScroll.setBorder(BorderFactory.createTitledBorder(
-                BorderFactory.createLineBorder(Color.GRAY),
-                "Game instructions",
-                javax.swing.border.TitledBorder.CENTER, // centered title
-                javax.swing.border.TitledBorder.TOP,
-                howto.getFont().deriveFont(Font.BOLD, 16f)
-        ));
-        howtoScroll.setPreferredSize(new Dimension(width, 230));
+        // An empty slot of the same size until showInstructions() fills it after the first frame
+        instructionsSlot = new JPanel(new BorderLayout());
+        instructionsSlot.setPreferredSize(new Dimension(width, INSTRUCTIONS_HEIGHT));
 
         // ========= Controls panel (buttons/combos) =========
-        JPanel controls = new JPanel(new GridLayout(12, 1, 6, 6));
+        JPanel controls = new JPanel(new GridLayout(18, 1, 6, 6));
         controls.setComponentOrientation(ComponentOrientation.RIGHT_TO_LEFT);
 
         JLabel title = new JLabel("Snake", SwingConstants.CENTER);
         title.setFont(title.getFont().deriveFont(Font.BOLD, 18f));
 
         playersBox = new JComboBox<>(new Integer[]{1, 2, 3, 4});
-        difficultyBox = new JComboBox<>(new String[]{"EASY", "NORMAL", "HARD", "INSANE"});
+        botsBox = new JComboBox<>(new Integer[]{0, 1, 2, 3, 10, 100, 1000});
+        difficultyBox = new JComboBox<>(GameEngine.DIFFICULTIES);
+        boardBox = new JComboBox<>(new String[]{
+                GameEngine.DEFAULT_COLS + "x" + GameEngine.DEFAULT_ROWS, "66x60", "200x200", "1000x1000", "2000x2000"});
+        boardBox.setEditable(true); // any COLSxROWS can be typed in
+        foodBox = new JComboBox<>(new Integer[]{1, 3, 10, 100, 1000});
 
         Font controlsFont = title.getFont().deriveFont(Font.PLAIN, 14f);
         playersBox.setFont(controlsFont);
+        botsBox.setFont(controlsFont);
         difficultyBox.setFont(controlsFont);
+        boardBox.setFont(controlsFont);
+        foodBox.setFont(controlsFont);
 
         startBtn = new JButton("Start");
         pauseBtn = new JButton("Pause (Space)");
@@ -112,7 +100,10 @@ public class MenuPanel extends JPanel {
             if (this.scenePanel != null) {
                 int players = (Integer) playersBox.getSelectedItem();
                 String diff = (String) difficultyBox.getSelectedItem();
-                this.scenePanel.startGame(players, diff, playerColors);
+                int[] board = parseBoard(String.valueOf(boardBox.getSelectedItem()));
+                int bots = selectedBots(players, board);
+                int food = (Integer) foodBox.getSelectedItem();
+                this.scenePanel.startGame(players, bots, diff, playerColors, board[0], board[1], food);
                 this.scenePanel.requestFocusInWindow();
             }
         };
@@ -128,6 +119,21 @@ public class MenuPanel extends JPanel {
             this.scenePanel.requestFocusInWindow();
         });
 
+        // ========= Leaderboard (bottom) =========
+        leaderboard = new JTextArea(LEADERBOARD_ROWS + 1, 20);
+        leaderboard.setEditable(false);
+        leaderboard.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        leaderboard.setComponentOrientation(ComponentOrientation.LEFT_TO_RIGHT);
+        leaderboard.setText("No saved matches");
+        JScrollPane leaderboardScroll = new JScrollPane(leaderboard);
+        leaderboardScroll.setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(Color.GRAY), "Leaderboard"));
+
+        ActionListener selectionChanged = e -> refreshLeaderboard();
+        playersBox.addActionListener(selectionChanged);
+        botsBox.addActionListener(selectionChanged);
+        difficultyBox.addActionListener(selectionChanged);
+        boardBox.addActionListener(selectionChanged);
+
         // Controls layout (with centered labels)
         controls.add(title);
 
@@ -136,19 +142,115 @@ public class MenuPanel extends JPanel {
         controls.add(playersLbl);
         controls.add(playersBox);
 
+        JLabel botsLbl = new JLabel("Computer players:", SwingConstants.CENTER);
+        botsLbl.setFont(controlsFont);
+        controls.add(botsLbl);
+        controls.add(botsBox);
+
         JLabel diffLbl = new JLabel("Difficulty level:", SwingConstants.CENTER);
         diffLbl.setFont(controlsFont);
         controls.add(diffLbl);
         controls.add(difficultyBox);
 
+        JLabel boardLbl = new JLabel("Board size:", SwingConstants.CENTER);
+        boardLbl.setFont(controlsFont);
+        controls.add(boardLbl);
+        controls.add(boardBox);
+
+        JLabel foodLbl = new JLabel("Food items:", SwingConstants.CENTER);
+        foodLbl.setFont(controlsFont);
+        controls.add(foodLbl);
+        controls.add(foodBox);
+
         for (JButton b : colorBtns) controls.add(b);
         controls.add(startBtn);
         controls.add(pauseBtn);
         controls.add(stopBtn);
 
         // ========= Compose MenuPanel =========
-        this.add(howtoScroll, BorderLayout.NORTH);   // instructions first
+        this.add(instructionsSlot, BorderLayout.NORTH); // instructions first
         this.add(controls, BorderLayout.CENTER);     // then settings
+        this.add(leaderboardScroll, BorderLayout.SOUTH);
+    }
+
+    // Builds the instructions text (the largest widget of the menu); not needed for the first frame
+    public void showInstructions() {
+        if (instructionsSlot.getComponentCount() > 0) return;
+        JTextArea howto = new JTextArea();
+        howto.setEditable(false);
+        howto.setLineWrap(true);
+        howto.setWrapStyleWord(true);
+        howto.setBackground(new Color(0xF5F5F5));
+        howto.setBorder(BorderFactory.createEmptyBorder(14, 14, 14, 14));
+        howto.setComponentOrientation(ComponentOrientation.LEFT_TO_RIGHT);
+        howto.setFont(howto.getFont().deriveFont(Font.BOLD, 15f));
+        howto.setText(
+                "Welcome to the Snake game!\n" +
+                        "This is a classic game where each player controls a snake in their chosen color.\n" +
+                        "Eat food to grow, avoid collisions, and try to outlast your opponents.\n" +
+                        "The goal is to be the longest snake or the last one remaining in the game.\n\n" +
+                        "Game Instructions — Step by Step:\n" +
+                        "1) Select the number of keyboard players; \"Computer players\" adds bots after them.\n" +
+                        "2) Choose a difficulty level.\n" +
+                        "3) Click the color button to choose a color for each player.\n" +
+                        "4) Press Start to begin.\n\n" +
+                        "Objective: Eat food, grow longer, and avoid collisions.\n" +
+                        "Each player competes to defeat the others — the last one alive or with the highest score wins.\n" +
+                        "Do not crash into walls, yourself, or other players!\n\n" +
+                        "Controls:\n" +
+                        "• Player 1: Arrow keys ← ↑ → ↓\n" +
+                        "• Player 2: W , A , S , D\n" +
+                        "• Player 3: T , F , G , H\n" +
+                        "• Player 4: I , J , K , L\n" +
+                        "Space — Pause | Reset — Restart the game."
+        );
+
+        JScrollPane howtoScroll = new JScrollPane(howto);
+        howtoScroll.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(Color.GRAY),
+                "Game instructions",
+                javax.swing.border.TitledBorder.CENTER, // centered title
+                javax.swing.border.TitledBorder.TOP,
+                howto.getFont().deriveFont(Font.BOLD, 16f)
+        ));
+        instructionsSlot.add(howtoScroll, BorderLayout.CENTER);
+        instructionsSlot.revalidate();
+        instructionsSlot.repaint();
+    }
+
+    // Bots take the slots after the keyboard players, as many as the board has start cells for
+    private int selectedBots(int players, int[] board) {
+        return Math.min((Integer) botsBox.getSelectedItem(), GameEngine.maxPlayers(board[0], board[1]) - players);
+    }
+
+    // Leaderboard of the game the Start button would begin (EDT only; reads the history's in-memory index)
+    private void refreshLeaderboard() {
+        if (history == null) return;
+        int players = (Integer) playersBox.getSelectedItem();
+        String diff = (String) difficultyBox.getSelectedItem();
+        int total = players + selectedBots(players, parseBoard(String.valueOf(boardBox.getSelectedItem())));
+
+        List<MatchHistory.Score> scores = history.leaderboard(diff, total, LEADERBOARD_ROWS);
+        StringBuilder text = new StringBuilder(diff + ", " + total + (total == 1 ? " player" : " players"));
+        if (scores.isEmpty()) text.append("\nNo saved matches");
+        for (int k = 0; k < scores.size(); k++) {
+            MatchHistory.Score s = scores.get(k);
+            text.append(String.format("\n%d. %5d  P%d%s  %tF", k + 1, s.score(), s.playerId(), s.won() ? " won" : "", s.endedAt()));
+        }
+        leaderboard.setText(text.toString());
+        leaderboard.setCaretPosition(0);
+    }
+
+    // "COLSxROWS" -> {cols, rows}; falls back to the classic board on bad input, sides below 8
+    // or more than GameEngine.MAX_CELLS cells
+    private static int[] parseBoard(String text) {
+        String[] parts = text.trim().toLowerCase().split("x");
+        try {
+            int cols = Integer.parseInt(parts[0].trim());
+            int rows = Integer.parseInt(parts[1].trim());
+            if (cols >= 8 && rows >= 8 && (long) cols * rows <= GameEngine.MAX_CELLS) return new int[] {cols, rows};
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {}
+        return new int[] {GameEngine.DEFAULT_COLS, GameEngine.DEFAULT_ROWS};
     }
 
     // Choose black/white text based on background color luminance
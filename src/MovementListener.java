@@ -11,10 +11,16 @@ public class MovementListener implements KeyListener {
     public void keyTyped(KeyEvent e) {}
 
     public void keyPressed(KeyEvent e) {
-        if (!scene.isRunning()) return;
-
         int code = e.getKeyCode();
 
+        // Metrics overlay (works in any state)
+        if (code == KeyEvent.VK_F3) {
+            scene.toggleMetrics();
+            return;
+        }
+
+        if (!scene.isRunning()) return;
+
         // Pause / Resume
         if (code == KeyEvent.VK_SPACE) {
             scene.togglePause();
@@ -0,0 +1,190 @@
+import javax.swing.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+// Thin client for GameServer: rebuilds the board from the FULL state and the DELTAs that follow
+// and hands each result to the renderer as a GameFrame. It runs no simulation of its own.
+// Usage: java NetClient [host] [port]
+public class NetClient implements Closeable {
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(1);
+    private byte[] message = new byte[1024];
+
+    private int playerId = -1; // -1 until WELCOME, 0 for a spectator
+    private int cols, rows;
+    private long steps, time;
+    private int[] ids, scores, foods;
+    private boolean[] alive;
+    private SnakeBody[] bodies;
+    private boolean gameOver;
+    private int winner;
+
+    public NetClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+    }
+
+    public int getPlayerId() { return playerId; }
+    public int getWinner() { return winner; }
+
+    public void sendDirection(Snake.Direction d) throws IOException {
+        sendBuffer.clear();
+        sendBuffer.put((byte) d.ordinal());
+        sendBuffer.flip();
+        while (sendBuffer.hasRemaining()) channel.write(sendBuffer);
+    }
+
+    // Blocks until the next board update; null once the server has closed the connection
+    public GameFrame readUpdate() throws IOException {
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            if (message.length < length) message = new byte[Math.max(length, message.length * 2)];
+            in.readFully(message, 0, length);
+            ByteBuffer m = ByteBuffer.wrap(message, 0, length);
+            switch (m.get()) {
+                case NetProtocol.WELCOME -> playerId = NetProtocol.getVarInt(m);
+                case NetProtocol.FULL -> {
+                    readFull(m);
+                    return frame();
+                }
+                case NetProtocol.DELTA -> {
+                    readDelta(m);
+                    return frame();
+                }
+                case NetProtocol.GAME_OVER -> {
+                    winner = NetProtocol.getVarInt(m);
+                    gameOver = true;
+                    return frame();
+                }
+                default -> throw new IOException("unknown message type");
+            }
+        }
+    }
+
+    private void readFull(ByteBuffer m) {
+        cols = NetProtocol.getVarInt(m);
+        rows = NetProtocol.getVarInt(m);
+        steps = NetProtocol.getVarLong(m);
+        time = NetProtocol.getVarLong(m);
+        int n = NetProtocol.getVarInt(m);
+        ids = new int[n];
+        alive = new boolean[n];
+        scores = new int[n];
+        bodies = new SnakeBody[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = NetProtocol.getVarInt(m);
+            alive[i] = m.get() != 0;
+            scores[i] = NetProtocol.getVarInt(m);
+            int length = NetProtocol.getVarInt(m);
+            bodies[i] = new SnakeBody(Math.max(16, length));
+            for (int k = 0; k < length; k++) bodies[i].addLast(NetProtocol.getVarInt(m));
+        }
+        foods = new int[NetProtocol.getVarInt(m)];
+        for (int k = 0; k < foods.length; k++) foods[k] = NetProtocol.getVarInt(m) - 1;
+    }
+
+    private void readDelta(ByteBuffer m) {
+        steps = NetProtocol.getVarLong(m);
+        time = NetProtocol.getVarLong(m);
+        int entries = m.getInt();
+        for (int e = 0; e < entries; e++) {
+            int i = NetProtocol.getVarInt(m);
+            int flags = m.get();
+            if ((flags & NetProtocol.MOVED) != 0) {
+                bodies[i].addFirst(NetProtocol.getVarInt(m));
+                if ((flags & NetProtocol.TAIL_REMOVED) != 0) bodies[i].removeLast();
+            }
+            if ((flags & NetProtocol.DIED) != 0) alive[i] = false;
+            if ((flags & NetProtocol.SCORED) != 0) scores[i] = NetProtocol.getVarInt(m);
+        }
+        int changes = m.getInt();
+        for (int c = 0; c < changes; c++) {
+            int slot = NetProtocol.getVarInt(m);
+            foods[slot] = NetProtocol.getVarInt(m) - 1;
+        }
+    }
+
+    private GameFrame frame() {
+        int n = bodies.length;
+        int[][] cells = new int[n][];
+        for (int i = 0; i < n; i++) {
+            cells[i] = new int[bodies[i].size()];
+            for (int k = 0; k < cells[i].length; k++) cells[i][k] = bodies[i].get(k);
+        }
+        return new GameFrame(cols, rows, time, steps, ids.clone(), alive.clone(), scores.clone(), cells, foods.clone(), gameOver, 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7777;
+        NetClient client = new NetClient(host, port);
+
+        // Swing components are created on the EDT; this thread only hands frames to the scene
+        ScenePanel[] created = new ScenePanel[1];
+        SwingUtilities.invokeAndWait(() -> created[0] = createWindow(client, host, port));
+        ScenePanel scene = created[0];
+
+        GameFrame f;
+        while ((f = client.readUpdate()) != null) {
+            scene.showFrame(f);
+            if (f.isGameOver()) break;
+        }
+        if (client.getPlayerId() > 0) System.out.println("You were P" + client.getPlayerId());
+        System.out.println("Winner: " + (client.getWinner() == 0 ? "draw" : "P" + client.getWinner()));
+        client.close();
+    }
+
+    private static ScenePanel createWindow(NetClient client, String host, int port) {
+        JFrame window = new JFrame("Snake - " + host + ":" + port);
+        window.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        ScenePanel scene = new ScenePanel(0, 0, 675, 640);
+        scene.setPreferredSize(new Dimension(675, 640));
+        scene.setFocusable(true);
+        scene.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                Snake.Direction d = switch (e.getKeyCode()) {
+                    case KeyEvent.VK_UP -> Snake.Direction.UP;
+                    case KeyEvent.VK_DOWN -> Snake.Direction.DOWN;
+                    case KeyEvent.VK_LEFT -> Snake.Direction.LEFT;
+                    case KeyEvent.VK_RIGHT -> Snake.Direction.RIGHT;
+                    default -> null;
+                };
+                if (d == null) return;
+                try {
+                    client.sendDirection(d);
+                } catch (IOException ex) {
+                    System.err.println("Send failed: " + ex.getMessage());
+                }
+            }
+        });
+        window.add(scene);
+        window.pack();
+        window.setLocationRelativeTo(null);
+        window.setVisible(true);
+        scene.requestFocusInWindow();
+        return scene;
+    }
+}
@@ -0,0 +1,84 @@
+import java.nio.ByteBuffer;
+
+// Wire format shared by GameServer and NetClient.
+// Server -> client: messages framed as [int payload length][byte type][payload].
+//   WELCOME   playerId (0 = spectator)
+//   FULL      cols rows steps time players, per snake: id alive score length cells..., foodCount foods...
+//   DELTA     steps time, int entries, per entry: snake index, flags, [new head], [score];
+//             int food changes, per change: slot, cell+1
+//   GAME_OVER winner
+// Client -> server: one byte per input, the direction ordinal.
+// Other numbers after the header are unsigned varints, so small boards and few players cost a byte or two per field.
+public final class NetProtocol {
+    public static final byte WELCOME = 1;
+    public static final byte FULL = 2;
+    public static final byte DELTA = 3;
+    public static final byte GAME_OVER = 4;
+
+    // DELTA entry flags
+    public static final int MOVED = 1;        // a new head cell follows
+    public static final int TAIL_REMOVED = 2; // drop the last cell
+    public static final int DIED = 4;
+    public static final int SCORED = 8;       // the new score follows
+
+    private NetProtocol() {}
+
+    // Starts a message; finish it with end(buffer, start) once the payload is written
+    public static int begin(ByteBuffer b, byte type) {
+        int start = b.position();
+        b.putInt(0);
+        b.put(type);
+        return start;
+    }
+
+    public static void end(ByteBuffer b, int start) {
+        b.putInt(start, b.position() - start - 4);
+    }
+
+    public static void putVarLong(ByteBuffer b, long v) {
+        while ((v & ~0x7FL) != 0) {
+            b.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        b.put((byte) v);
+    }
+
+    public static long getVarLong(ByteBuffer b) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte x = b.get();
+            v |= (long) (x & 0x7F) << shift;
+            if (x >= 0) return v;
+        }
+    }
+
+    public static int getVarInt(ByteBuffer b) {
+        return (int) getVarLong(b);
+    }
+
+    // Upper bound of a FULL message for this engine, to size the buffer
+    public static int fullSize(GameEngine e) {
+        int size = 64 + 10 * e.getFoodCount();
+        for (int i = 0; i < e.getPlayers(); i++) size += 20 + 5 * e.getLength(i);
+        return size;
+    }
+
+    public static void putFull(ByteBuffer b, GameEngine e) {
+        int start = begin(b, FULL);
+        putVarLong(b, e.getCols());
+        putVarLong(b, e.getRows());
+        putVarLong(b, e.getSteps());
+        putVarLong(b, e.getTime());
+        putVarLong(b, e.getPlayers());
+        for (int i = 0; i < e.getPlayers(); i++) {
+            putVarLong(b, e.getId(i));
+            b.put((byte) (e.isAlive(i) ? 1 : 0));
+            putVarLong(b, e.getScore(i));
+            putVarLong(b, e.getLength(i));
+            for (int k = 0; k < e.getLength(i); k++) putVarLong(b, e.getBodyCell(i, k));
+        }
+        putVarLong(b, e.getFoodCount());
+        for (int k = 0; k < e.getFoodCount(); k++) putVarLong(b, e.getFood(k) + 1L);
+        end(b, start);
+    }
+}
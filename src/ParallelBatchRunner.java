@@ -0,0 +1,38 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+// Runs many independent seeded matches concurrently on a fork-join pool, one GameEngine per match.
+// Matches share nothing, and each worker aggregates into its own MatchStats, so throughput scales with cores.
+// Usage: java ParallelBatchRunner [matches] [players] [difficulty] [seed] [cols] [rows] [food] [threads]
+public class ParallelBatchRunner {
+    public static void main(String[] args) throws Exception {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String difficulty = args.length > 2 ? args[2] : "NORMAL";
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        int cols = args.length > 4 ? Integer.parseInt(args[4]) : GameEngine.DEFAULT_COLS;
+        int rows = args.length > 5 ? Integer.parseInt(args[5]) : GameEngine.DEFAULT_ROWS;
+        int food = args.length > 6 ? Integer.parseInt(args[6]) : 1;
+        int threads = args.length > 7 ? Integer.parseInt(args[7]) : Runtime.getRuntime().availableProcessors();
+
+        long t0 = System.nanoTime();
+        MatchStats stats = run(matches, players, difficulty, seed, cols, rows, food, threads);
+        System.out.printf("threads: %d%n", threads);
+        stats.print(System.out, (System.nanoTime() - t0) / 1e9);
+    }
+
+    // Same seeds as BatchRunner (seed, seed+1, ...), so the aggregate does not depend on the thread count
+    public static MatchStats run(int matches, int players, String difficulty, long seed,
+                                 int cols, int rows, int food, int threads) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> LongStream.range(0, matches).parallel().collect(
+                    () -> new MatchStats(players),
+                    (stats, m) -> stats.add(BatchRunner.runMatch(seed + m, players, difficulty, cols, rows, food)),
+                    MatchStats::merge
+            )).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
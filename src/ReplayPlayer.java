@@ -0,0 +1,196 @@
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Re-simulates a match recorded by ReplayWriter on a fresh GameEngine, as fast as the CPU allows.
+// A keyframe of the engine is kept every KEYFRAME_INTERVAL steps as playback passes it,
+// so seek() to any step only re-simulates from the nearest earlier keyframe.
+// Usage: java ReplayPlayer FILE [seekStep] [--watch [speed]]
+public class ReplayPlayer {
+    public static final int KEYFRAME_INTERVAL = 1000;
+
+    // Header
+    private final long seed;
+    private final int cols, rows, players, foodCount, startLength;
+    private final long baseSpeedMillis;
+
+    // Direction changes, in step order
+    private long[] recordSteps = new long[256];
+    private int[] recordPlayers = new int[256];
+    private Snake.Direction[] recordDirs = new Snake.Direction[256];
+    private int recordCount;
+    private long endStep = -1; // -1 when the recording was cut off without an end marker
+
+    private final GameEngine engine;
+    private final List<GameEngine.Keyframe> keyframes = new ArrayList<>();
+    private int nextRecord;
+
+    public ReplayPlayer(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (in.getInt() != ReplayWriter.MAGIC) throw new IOException(file + " is not a Snake replay");
+            int version = in.getInt();
+            if (version != ReplayWriter.VERSION) throw new IOException("unsupported replay version " + version);
+            seed = in.getLong();
+            cols = in.getInt();
+            rows = in.getInt();
+            players = in.getInt();
+            baseSpeedMillis = in.getLong();
+            foodCount = in.getInt();
+            startLength = in.getInt();
+            readRecords(in);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(file + " is truncated", e);
+        }
+
+        engine = new GameEngine(cols, rows, seed);
+        engine.start(players, baseSpeedMillis, foodCount, startLength);
+        keyframes.add(engine.saveKeyframe());
+    }
+
+    private void readRecords(ByteBuffer in) {
+        long step = 0;
+        while (in.hasRemaining()) {
+            long delta, value;
+            try {
+                delta = getVarLong(in);
+                value = getVarLong(in);
+            } catch (BufferUnderflowException e) {
+                return; // last record was cut off
+            }
+            step += delta;
+            if (value == 0) {
+                endStep = step;
+                return;
+            }
+            if (recordCount == recordSteps.length) {
+                int n = recordCount * 2;
+                recordSteps = Arrays.copyOf(recordSteps, n);
+                recordPlayers = Arrays.copyOf(recordPlayers, n);
+                recordDirs = Arrays.copyOf(recordDirs, n);
+            }
+            recordSteps[recordCount] = step;
+            recordPlayers[recordCount] = (int) (value >>> 2);
+            recordDirs[recordCount] = Snake.Direction.values()[(int) (value & 3)];
+            recordCount++;
+        }
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+    }
+
+    public GameEngine getEngine() { return engine; }
+    public long getEndStep() { return endStep; }
+
+    public boolean isDone() {
+        return engine.isGameOver() || (endStep >= 0 && engine.getSteps() >= endStep);
+    }
+
+    // Plays one recorded step; false when the recording is over
+    public boolean step() {
+        if (isDone()) return false;
+        long s = engine.getSteps();
+        if (s % KEYFRAME_INTERVAL == 0 && s / KEYFRAME_INTERVAL == keyframes.size()) {
+            keyframes.add(engine.saveKeyframe());
+        }
+        while (nextRecord < recordCount && recordSteps[nextRecord] == s) {
+            engine.setDirection(recordPlayers[nextRecord], recordDirs[nextRecord]);
+            nextRecord++;
+        }
+        return engine.step();
+    }
+
+    // Moves to the given step (clamped to the recording), backwards or forwards
+    public void seek(long target) {
+        int k = (int) Math.min(target / KEYFRAME_INTERVAL, keyframes.size() - 1);
+        long keyStep = (long) k * KEYFRAME_INTERVAL;
+        if (target < engine.getSteps() || keyStep > engine.getSteps()) {
+            engine.loadKeyframe(keyframes.get(k));
+            nextRecord = firstRecordAtOrAfter(keyStep);
+        }
+        while (engine.getSteps() < target && step()) {}
+    }
+
+    private int firstRecordAtOrAfter(long step) {
+        int lo = 0, hi = recordCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (recordSteps[mid] < step) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ReplayPlayer player = new ReplayPlayer(Path.of(args[0]));
+        int watch = Arrays.asList(args).indexOf("--watch");
+        long seekTo = args.length > 1 && watch != 1 ? Long.parseLong(args[1]) : -1;
+
+        if (watch >= 0) {
+            double speed = args.length > watch + 1 ? Double.parseDouble(args[watch + 1]) : 1.0;
+            if (seekTo >= 0) player.seek(seekTo);
+            watch(player, speed);
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        if (seekTo >= 0) player.seek(seekTo);
+        else while (player.step()) {}
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        GameEngine e = player.getEngine();
+        System.out.printf("step %d (%.1f s of game time) re-simulated in %.3f s (%.0fx real time)%n",
+                e.getSteps(), e.getTime() / 1000.0, secs, e.getTime() / 1000.0 / Math.max(secs, 1e-9));
+        for (int i = 0; i < e.getPlayers(); i++) {
+            System.out.printf("P%d score %d length %d %s%n", e.getId(i), e.getScore(i), e.getLength(i),
+                    e.isAlive(i) ? "alive" : "dead");
+        }
+        if (player.isDone()) System.out.println("winner: " + (e.getWinner() == 0 ? "draw" : "P" + e.getWinner()));
+    }
+
+    // Shows the replay in a window at the given speed factor
+    private static void watch(ReplayPlayer player, double speed) throws Exception {
+        // Swing components are created on the EDT; this thread only hands frames to the scene
+        ScenePanel[] created = new ScenePanel[1];
+        SwingUtilities.invokeAndWait(() -> created[0] = createWindow());
+        ScenePanel scene = created[0];
+
+        GameEngine e = player.getEngine();
+        long startTime = e.getTime();
+        long origin = System.nanoTime();
+        scene.showFrame(e.snapshot());
+        while (!player.isDone()) {
+            long gameNow = startTime + (long) ((System.nanoTime() - origin) / 1e6 * speed);
+            boolean moved = false;
+            while (!player.isDone() && e.nextDueAt() <= gameNow) moved |= player.step();
+            if (moved) scene.showFrame(e.snapshot());
+            try { Thread.sleep(5); } catch (InterruptedException ignored) {}
+        }
+        scene.showFrame(e.snapshot());
+    }
+
+    private static ScenePanel createWindow() {
+        JFrame window = new JFrame("Snake replay");
+        window.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        ScenePanel scene = new ScenePanel(0, 0, 675, 640);
+        scene.setPreferredSize(new java.awt.Dimension(675, 640));
+        window.add(scene);
+        window.pack();
+        window.setLocationRelativeTo(null);
+        window.setVisible(true);
+        return scene;
+    }
+}
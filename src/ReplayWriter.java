@@ -0,0 +1,83 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Records a match as a compact append-only binary log.
+// Header: magic, version, then everything needed to re-create the engine (seed, board, players, speed,
+// food, start length). Body: one record per applied direction change, as two varints:
+// (step number - previous record's step number), (playerId << 2 | direction ordinal).
+// playerId 0 marks the end of the match; its step is the number of steps played.
+// Records go into a direct buffer that is written to the channel only when full or on close.
+public class ReplayWriter implements GameEngine.Listener, Closeable {
+    public static final int MAGIC = 0x534E4B52; // "SNKR"
+    public static final int VERSION = 3; // 2: snakes due together move simultaneously; 3: eaten food refilled after the step
+
+    private final GameEngine engine;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private long lastStep;
+    private boolean failed;
+
+    // The engine must already be started; register the writer with engine.addListener
+    public ReplayWriter(Path file, GameEngine engine) throws IOException {
+        this.engine = engine;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(engine.getSeed());
+        buffer.putInt(engine.getCols());
+        buffer.putInt(engine.getRows());
+        buffer.putInt(engine.getPlayers());
+        buffer.putLong(engine.getBaseSpeedMillis());
+        buffer.putInt(engine.getFoodCount());
+        buffer.putInt(engine.getStartLength());
+    }
+
+    @Override
+    public void onDirectionChanged(int playerId, Snake.Direction dir) {
+        append(engine.getSteps(), ((long) playerId << 2) | dir.ordinal());
+    }
+
+    // Writes the end marker and closes the file
+    @Override
+    public void close() throws IOException {
+        append(engine.getSteps(), 0);
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void append(long step, long value) {
+        if (failed) return;
+        try {
+            if (buffer.remaining() < 20) flush();
+            putVarLong(step - lastStep);
+            putVarLong(value);
+            lastStep = step;
+        } catch (IOException e) {
+            // Losing the recording must not stop the match
+            failed = true;
+            System.err.println("replay recording stopped: " + e.getMessage());
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void putVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+}
@@ -0,0 +1,271 @@
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Hosts many GameRooms on a few worker threads instead of one loop thread per match.
+// Each room is pinned to one worker; a worker keeps its rooms in a timer heap ordered by the wall-clock
+// time of their next step, sleeps until the earliest one is due and steps only the rooms that are due.
+// A room whose engine or listener throws is closed and released on its own; the worker keeps going.
+// Backpressure:
+//   - a room steps at most MAX_CATCH_UP_STEPS per pass, so a late room cannot starve its neighbours;
+//   - a room more than MAX_LAG_MILLIS behind moves its clock forward instead of fast-forwarding;
+//   - new rooms go to the least loaded worker, and are refused when the manager is full or every
+//     worker is running late.
+// Usage (load test with autopilot snakes): java RoomManager [rooms] [workers] [seconds] [difficulty] [cols] [rows]
+public class RoomManager {
+    private static final int MAX_CATCH_UP_STEPS = 8;
+    private static final long MAX_LAG_MILLIS = 250;
+    private static final long OVERLOAD_NANOS = 20_000_000L; // smoothed lateness above which a worker takes no new rooms
+
+    private final Worker[] workers;
+    private final int maxRooms;
+    private final ConcurrentHashMap<Long, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running = true;
+
+    public RoomManager(int workerCount, int maxRooms) {
+        this.maxRooms = maxRooms;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+            workers[i].thread.start();
+        }
+    }
+
+    // === Room lifecycle ===
+
+    // Creates a room in the WAITING state (players can be wired up before startRoom)
+    public GameRoom createRoom(int players, String difficulty, int cols, int rows, int food, long seed,
+                               GameRoom.Listener listener) {
+        if (!running) throw new IllegalStateException("room manager is shut down");
+        if (rooms.size() >= maxRooms) throw new IllegalStateException("room limit reached (" + maxRooms + ")");
+        Worker w = leastLoaded();
+        if (w == null) throw new IllegalStateException("all workers are running late");
+
+        GameEngine engine = new GameEngine(cols, rows, seed);
+        engine.start(players, GameEngine.baseSpeedFor(difficulty), food);
+        GameRoom room = new GameRoom(nextId.getAndIncrement(), engine, listener);
+        room.worker = w.index;
+        w.load.incrementAndGet();
+        rooms.put(room.getId(), room);
+        return room;
+    }
+
+    // Starts the room's clock; from here on only its worker touches the engine
+    public void startRoom(GameRoom room) {
+        synchronized (room) {
+            if (room.getState() != GameRoom.State.WAITING) throw new IllegalStateException("room " + room.getId() + " is " + room.getState());
+            room.setState(GameRoom.State.RUNNING);
+        }
+        Worker w = workers[room.worker];
+        w.inbox.add(room);
+        LockSupport.unpark(w.thread);
+    }
+
+    // Stops a room early; its worker drops it the next time it comes up
+    public void closeRoom(GameRoom room) {
+        GameRoom.State previous;
+        synchronized (room) {
+            previous = room.getState();
+            if (previous == GameRoom.State.FINISHED || previous == GameRoom.State.CLOSED) return;
+            room.setState(GameRoom.State.CLOSED);
+        }
+        if (previous == GameRoom.State.WAITING) release(room);
+    }
+
+    public GameRoom getRoom(long id) { return rooms.get(id); }
+    public int getActiveRooms() { return rooms.size(); }
+    public long getFinishedRooms() { return finished.get(); }
+    public long getFailedRooms() { return failed.get(); }
+
+    public long getSteps() {
+        long n = 0;
+        for (Worker w : workers) n += w.steps;
+        return n;
+    }
+
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Worker w : workers) LockSupport.unpark(w.thread);
+        for (Worker w : workers) w.thread.join();
+    }
+
+    private Worker leastLoaded() {
+        Worker best = null;
+        for (Worker w : workers) {
+            if (w.avgLatenessNanos > OVERLOAD_NANOS) continue;
+            if (best == null || w.load.get() < best.load.get()) best = w;
+        }
+        return best;
+    }
+
+    // Idempotent: a room is released once, however it ended
+    private void release(GameRoom room) {
+        if (rooms.remove(room.getId(), room)) workers[room.worker].load.decrementAndGet();
+    }
+
+    // === Workers ===
+
+    private final class Worker implements Runnable {
+        final int index;
+        final Thread thread;
+        final ConcurrentLinkedQueue<GameRoom> inbox = new ConcurrentLinkedQueue<>();
+        final PriorityQueue<GameRoom> timers = new PriorityQueue<>(Comparator.comparingLong(r -> r.dueAtNanos));
+        final AtomicInteger load = new AtomicInteger(); // rooms assigned and not yet released
+        final LatencyHistogram lateness = new LatencyHistogram();
+        volatile long avgLatenessNanos; // smoothed lateness of its ticks (written by the worker only)
+        volatile long steps;
+
+        Worker(int index) {
+            this.index = index;
+            this.thread = new Thread(this, "RoomWorker-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                GameRoom r;
+                while ((r = inbox.poll()) != null) {
+                    long now = System.nanoTime();
+                    r.origin = now;
+                    r.dueAtNanos = now + r.getEngine().nextDueAt() * 1_000_000L;
+                    timers.add(r);
+                }
+
+                GameRoom next = timers.peek();
+                if (next == null) {
+                    avgLatenessNanos = 0; // no rooms, so nothing to be late for
+                    LockSupport.park(this);
+                    continue;
+                }
+                long now = System.nanoTime();
+                if (next.dueAtNanos > now) {
+                    // Caught up: decays like an on-time tick, so a slow spell does not keep the worker out of leastLoaded
+                    avgLatenessNanos -= avgLatenessNanos / 16;
+                    LockSupport.parkNanos(this, next.dueAtNanos - now);
+                    continue;
+                }
+                timers.poll();
+                try {
+                    tick(next, now);
+                } catch (RuntimeException e) {
+                    fail(next, e);
+                }
+            }
+        }
+
+        // One room broke (engine step or listener): only that room is closed, the others keep ticking.
+        // It is not back in the timer heap, which only happens at the end of a successful tick.
+        private void fail(GameRoom room, RuntimeException e) {
+            synchronized (room) {
+                if (room.getState() != GameRoom.State.FINISHED) room.setState(GameRoom.State.CLOSED);
+            }
+            release(room);
+            failed.incrementAndGet();
+            System.err.println("room " + room.getId() + " closed after an error: " + e);
+        }
+
+        private void tick(GameRoom room, long now) {
+            if (room.getState() == GameRoom.State.CLOSED) {
+                release(room);
+                return;
+            }
+            long late = now - room.dueAtNanos;
+            lateness.record(late);
+            avgLatenessNanos += (late - avgLatenessNanos) / 16;
+
+            GameEngine engine = room.getEngine();
+            long target = (now - room.origin) / 1_000_000L;
+            int n = 0;
+            while (n < MAX_CATCH_UP_STEPS && engine.nextDueAt() <= target && engine.step()) n++;
+            steps += n;
+            room.getListener().onTick(room);
+
+            if (engine.isGameOver()) {
+                synchronized (room) {
+                    if (room.getState() == GameRoom.State.RUNNING) room.setState(GameRoom.State.FINISHED);
+                }
+                release(room);
+                if (room.getState() == GameRoom.State.FINISHED) {
+                    finished.incrementAndGet();
+                    room.getListener().onFinished(room);
+                }
+                return;
+            }
+
+            long due = engine.nextDueAt();
+            if (target - due > MAX_LAG_MILLIS) {
+                room.origin += (target - due) * 1_000_000L; // the next step is due now, the backlog is dropped
+                room.lagResets++;
+            }
+            room.dueAtNanos = room.origin + due * 1_000_000L;
+            timers.add(room);
+        }
+    }
+
+    // === Load test ===
+
+    public static void main(String[] args) throws Exception {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int workerCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String difficulty = args.length > 3 ? args[3] : "NORMAL";
+        int cols = args.length > 4 ? Integer.parseInt(args[4]) : GameEngine.DEFAULT_COLS;
+        int rows = args.length > 5 ? Integer.parseInt(args[5]) : GameEngine.DEFAULT_ROWS;
+
+        RoomManager manager = new RoomManager(workerCount, roomCount);
+        AtomicLong seeds = new AtomicLong(1);
+        AtomicLong refused = new AtomicLong();
+
+        // Every room is played by autopilot snakes; a finished room is replaced so the load stays constant
+        GameRoom.Listener[] autopilot = new GameRoom.Listener[1];
+        autopilot[0] = new GameRoom.Listener() {
+            @Override
+            public void onTick(GameRoom room) {
+                GameEngine e = room.getEngine();
+                for (int i = 0; i < e.getPlayers(); i++) if (e.isAlive(i)) BatchRunner.steer(e, i, ThreadLocalRandom.current());
+            }
+
+            @Override
+            public void onFinished(GameRoom room) {
+                spawn(manager, autopilot[0], seeds, refused, difficulty, cols, rows);
+            }
+        };
+        for (int i = 0; i < roomCount; i++) spawn(manager, autopilot[0], seeds, refused, difficulty, cols, rows);
+
+        long t0 = System.nanoTime();
+        long lastSteps = 0;
+        for (int s = 1; s <= seconds; s++) {
+            Thread.sleep(1000);
+            long steps = manager.getSteps();
+            System.out.printf("%3d s  rooms %d  finished %d  failed %d  steps/s %d  refused %d%n", s, manager.getActiveRooms(),
+                    manager.getFinishedRooms(), manager.getFailedRooms(), steps - lastSteps, refused.get());
+            lastSteps = steps;
+        }
+        double secs = (System.nanoTime() - t0) / 1e9;
+        manager.shutdown();
+
+        System.out.printf("%d rooms on %d workers: %.0f steps/s, %d matches finished%n",
+                roomCount, workerCount, manager.getSteps() / secs, manager.getFinishedRooms());
+        for (Worker w : manager.workers) {
+            System.out.printf("worker %d lateness (ms): %s%n", w.index, w.lateness.summary(1e6));
+        }
+    }
+
+    private static void spawn(RoomManager manager, GameRoom.Listener listener, AtomicLong seeds, AtomicLong refused,
+                              String difficulty, int cols, int rows) {
+        try {
+            manager.startRoom(manager.createRoom(4, difficulty, cols, rows, 1, seeds.getAndIncrement(), listener));
+        } catch (IllegalStateException e) {
+            refused.incrementAndGet();
+        }
+    }
+}
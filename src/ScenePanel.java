@@ -1,274 +1,404 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.LinkedList;
-import java.util.Random;
-import javax.sound.sampled.*;
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 public class ScenePanel extends JPanel {
-    // Board (Grid)
-    public static final int TILE = 20;
-    public static final int COLS = 33;
-    public static final int ROWS = 30;
+    // Player colors used when the menu did not pick any (display-only frames, extra players)
+    public static final Color[] DEFAULT_COLORS = new Color[] {
+            new Color(0x1abc9c), new Color(0xe74c3c),
+            new Color(0x3498db), new Color(0xf1c40f)
+    };
+
+    // How often the HUD's frame-time line refreshes
+    private static final long HUD_REFRESH_NANOS = 500_000_000L;
 
     // Runtime state
     private volatile boolean running;
     private volatile boolean paused;
-    private volatile boolean gameOver;
 
-    // Players (snakes)
-    private Snake[] snakes = new Snake[0];
-    private int players = 0;
+    // Game rules and state live in the engine (owned by the GameLoop thread);
+    // this panel only draws the latest frame the loop published
+    private volatile GameEngine engine;
+    private volatile GameFrame frame;
+    private volatile Thread loopThread;
+    private volatile Color[] colors = new Color[0];
+    private volatile int humans; // players 1..humans take keyboard turns, the rest are bots
+
+    // Visible part of the board; written by the loop on publish, refreshed by paint on resize
+    private volatile Viewport viewport;
+
+    // Wall-clock instant of logical time 0 in the running game (shifted by pauses), for tweening
+    private volatile long clockOrigin;
+
+    // Passive mode paints through Swing on the EDT with this renderer; active mode has a canvas with its own
+    private final SceneRenderer renderer;
+    private final ActiveScene active;
+
+    // Next time the loop refreshes the HUD even when no score changed (GameLoop only)
+    private long hudRefreshAt;
 
-    // Food
-    private Point food;
-    private final Random rng = new Random();
+    // Earliest key press applied by a published frame and not painted yet (set by the GameLoop, taken by the painter)
+    private final AtomicLong pendingKeyPress = new AtomicLong();
 
-    // Base speed by difficulty
-    private long baseSpeedMillis = 120; // NORMAL default
-    private final long minSpeedMillis = 60;
+    // Run once, on the painting thread, after the first frame is drawn (startup timing)
+    private volatile Runnable onFirstFrame;
+
+    // Where finished matches are saved (null: not saved)
+    private volatile MatchHistory history;
+
+    // Tick-level metrics of the current game, a new instance per game (the previous loop keeps its own);
+    // the overlay is toggled with F3, the file dump enabled by -Dsnake.metrics.file=PATH
+    private volatile GameMetrics metrics = new GameMetrics();
+    private volatile boolean showMetrics;
 
     public ScenePanel (int x, int y, int width, int height) {
+        this(x, y, width, height, false, false);
+    }
+
+    // activeRendering: draw on a BufferStrategy canvas from a render thread (ActiveScene) instead of
+    // Swing repaints; interpolate: tween snakes between ticks (active rendering only)
+    public ScenePanel (int x, int y, int width, int height, boolean activeRendering, boolean interpolate) {
         this.setBounds(x, y, width, height);
-        this.setLayout(null);
         this.running = false;
         this.paused = false;
-        this.gameOver = false;
+        this.renderer = new SceneRenderer(metrics);
+        if (activeRendering) {
+            this.setLayout(new BorderLayout());
+            this.active = new ActiveScene(this, interpolate);
+            this.add(active, BorderLayout.CENTER);
+        } else {
+            this.setLayout(null);
+            this.active = null;
+        }
 
         this.setFocusable(true);
         this.addKeyListener(new MovementListener(this));
 
+        String metricsFile = System.getProperty("snake.metrics.file");
+        if (metricsFile != null) GameMetrics.startDump(Path.of(metricsFile), Long.getLong("snake.metrics.interval", 10_000), () -> metrics);
+
         // Initial background paint
-        repaint();
+        redraw();
     }
 
     // === Menu control ===
-    public void startGame(int players, String difficulty, Color[] colors) {
-        this.players = players;
-        this.baseSpeedMillis = switch (difficulty) {
-            case "EASY" -> 160;
-            case "HARD" -> 90;
-            case "INSANE" -> 70;
-            default -> 120; // NORMAL
-        };
-
-        // Create snakes
-        snakes = new Snake[players];
-        Point[] starts = new Point[] {
-                new Point(COLS/4, ROWS/2),
-                new Point(3*COLS/4, ROWS/2),
-                new Point(COLS/2, ROWS/4),
-                new Point(COLS/2, 3*ROWS/4)
-        };
-        Snake.Direction[] dirs = new Snake.Direction[] {
-                Snake.Direction.RIGHT, Snake.Direction.LEFT,
-                Snake.Direction.DOWN,  Snake.Direction.UP
-        };
-        for (int i = 0; i < players; i++) {
-            snakes[i] = new Snake(i+1, starts[i], dirs[i], colors[i], baseSpeedMillis);
-        }
+    // Players 1..humans are on the keyboard, the next bots slots are played by FoodSeekerBots
+    public void startGame(int humans, int bots, String difficulty, Color[] colors, int cols, int rows, int foodCount) {
+        int players = humans + bots;
+        this.colors = Arrays.copyOf(colors, players);
+        for (int i = colors.length; i < players; i++) this.colors[i] = extraColor(i);
+
+        this.humans = humans;
+        GameEngine engine = new GameEngine(cols, rows, System.nanoTime());
+        SoundMixer sound = SoundMixer.shared();
+        engine.addListener(new GameEngine.Listener() {
+            @Override
+            public void onFoodEaten(int playerId) {
+                sound.play(SoundMixer.Effect.EAT);
+            }
 
-        spawnFood();
+            @Override
+            public void onGameOver() {
+                sound.play(SoundMixer.Effect.GAME_OVER);
+            }
+        });
+        engine.start(players, GameEngine.baseSpeedFor(difficulty), foodCount);
+        BoardSearch search = new BoardSearch(engine);
+        for (int id = humans + 1; id <= players; id++) engine.setBot(id, new FoodSeekerBot(search));
+        GameMetrics stats = new GameMetrics();
+        engine.setMetrics(stats);
+        this.metrics = stats;
+        ReplayWriter recorder = startRecording(engine);
+
+        this.engine = engine;
+        this.frame = engine.snapshot();
+        this.viewport = null;
         this.running = true;
         this.paused = false;
-        this.gameOver = false;
 
-        startGameLoop();
+        startGameLoop(engine, stats, recorder, difficulty, humans);
+    }
+
+    // Records the match when -Dsnake.replay.dir=DIR is set (play it back with ReplayPlayer)
+    private ReplayWriter startRecording(GameEngine engine) {
+        String dir = System.getProperty("snake.replay.dir");
+        if (dir == null) return null;
+        try {
+            Files.createDirectories(Path.of(dir));
+            Path file = Path.of(dir, "match-" + System.currentTimeMillis() + ".snkr");
+            ReplayWriter recorder = new ReplayWriter(file, engine);
+            engine.addListener(recorder);
+            return recorder;
+        } catch (IOException e) {
+            System.err.println("replay recording disabled: " + e.getMessage());
+            return null;
+        }
     }
 
     public void togglePause() {
-        if (running && !gameOver) {
+        if (running && !isGameOver()) {
             paused = !paused;
-            repaint();
+            LockSupport.unpark(loopThread);
+            redraw();
         }
     }
 
     public void resetGame() {
         running = false;
         paused = false;
-        gameOver = false;
-        snakes = new Snake[0];
-        repaint();
-        Toolkit.getDefaultToolkit().beep();
+        engine = null;
+        frame = null;
+        LockSupport.unpark(loopThread);
+        redraw();
+        SoundMixer.shared().play(SoundMixer.Effect.RESET);
     }
 
     // === Keyboard input ===
+    // Keys of the slots that bots play are ignored, so they cannot steer a bot
     public void setDirectionForPlayer(int playerId, Snake.Direction nd) {
-        for (Snake s : snakes) {
-            if (s.getId() == playerId && s.isAlive() && !Snake.isOpposite(s.getDir(), nd)) {
-                s.setDir(nd);
-            }
-        }
+        GameEngine e = engine;
+        if (e != null && playerId <= humans) e.queueDirection(playerId, nd, System.nanoTime());
     }
 
     public boolean isRunning() { return running; }
 
-    // === Game loop ===
-    private void startGameLoop () {
-        new Thread(() -> {
-            long[] nextStepAt = new long[snakes.length];
-            long now = System.currentTimeMillis();
-            for (int i = 0; i < snakes.length; i++) nextStepAt[i] = now + snakes[i].getSpeedMillis();
-
-            while (running && !gameOver) {
-                if (!paused) {
-                    now = System.currentTimeMillis();
-                    for (int i = 0; i < snakes.length; i++) {
-                        Snake s = snakes[i];
-                        if (!s.isAlive()) continue;
-                        if (now >= nextStepAt[i]) {
-                            stepSnake(s);
-                            nextStepAt[i] = now + s.getSpeedMillis();
-                        }
-                    }
-                    repaint();
-                }
-                try { Thread.sleep(10); } catch (InterruptedException ignored) {}
-            }
-        }, "GameLoop").start();
+    public void toggleMetrics() {
+        showMetrics = !showMetrics;
+        redraw();
     }
 
-    private void stepSnake(Snake s) {
-        Point head = new Point(s.getHead());
-        switch (s.getDir()) {
-            case UP -> head.y -= 1;
-            case DOWN -> head.y += 1;
-            case LEFT -> head.x -= 1;
-            case RIGHT -> head.x += 1;
-        }
+    public GameMetrics getMetrics() { return metrics; }
 
-        // Walls
-        if (head.x < 0 || head.x >= COLS || head.y < 0 || head.y >= ROWS) {
-            s.setAlive(false); checkGameOver(); return;
-        }
+    public void setHistory(MatchHistory history) { this.history = history; }
 
-        // Any snake body / self
-        if (isOccupied(head)) {
-            s.setAlive(false); checkGameOver(); return;
+    public void setOnFirstFrame(Runnable onFirstFrame) { this.onFirstFrame = onFirstFrame; }
+
+    // Latest published frame, held so the loop does not recycle it while it is read; release() it when done
+    GameFrame holdFrame() {
+        while (true) {
+            GameFrame f = frame;
+            if (f == null) return null;
+            f.hold();
+            if (frame == f) return f;
+            f.release(); // superseded meanwhile, so it may already be refilling
         }
+    }
 
-        // Add head
-        s.getBody().addFirst(head);
+    // Current logical time of the running game in (fractional) ms, on the clock the loop steps by
+    double getLogicalTimeMillis() { return (System.nanoTime() - clockOrigin) / 1e6; }
 
-        // Food?
-        if (food != null && head.equals(food)) {
-            s.setScore(s.getScore()+1);
-            accelerate(s);
-            Toolkit.getDefaultToolkit().beep(); // eat effect
-//            playEatSound();
-            spawnFood();
-        } else {
-            // Move tail (to advance forward)
-            s.getBody().removeLast();
+    // Display-only use (no local game loop): draws the given frame as-is
+    public void showFrame(GameFrame f) {
+        frame = f;
+        viewport = null;
+        redraw();
+    }
+
+    private boolean isGameOver() {
+        GameFrame f = holdFrame();
+        if (f == null) return false;
+        try {
+            return f.isGameOver();
+        } finally {
+            f.release();
         }
     }
 
-    private void accelerate(Snake s) {
-        long ns = Math.max(minSpeedMillis, (long)(s.getSpeedMillis() * 0.94)); // ~6%
-        s.setSpeedMillis(ns);
+    // === Game loop ===
+    // Deadline-ordered loop on System.nanoTime(): sleeps until the earliest snake is due,
+    // repaints only after something moved, and parks while paused (togglePause/resetGame unpark it).
+    private void startGameLoop (GameEngine game, GameMetrics stats, ReplayWriter recorder, String difficulty, int humans) {
+        Color[] matchColors = colors;
+        FramePool frames = new FramePool();
+        Thread loop = new Thread(() -> {
+            long origin = System.nanoTime(); // wall-clock instant of logical time 0
+            clockOrigin = origin;
+
+            while (running && engine == game && !game.isGameOver()) {
+                if (paused) {
+                    long pausedAt = System.nanoTime();
+                    while (paused && running && engine == game) LockSupport.park(this);
+                    origin += System.nanoTime() - pausedAt; // time spent paused is not counted
+                    clockOrigin = origin;
+                    continue;
+                }
+
+                long due = game.nextDueAt();
+                if (due == Long.MAX_VALUE) break;
+
+                long dueAt = origin + due * 1_000_000L;
+                long wait = dueAt - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue; // re-check: we may have been woken for a pause or reset
+                }
+                stats.getLatenessNanos().record(-wait);
+
+                if (game.advanceTo((System.nanoTime() - origin) / 1_000_000L) > 0) publish(game, frames, stats);
+            }
+            publish(game, frames, stats);
+
+            // Finished matches (not resets) go to the history; it writes them on its own thread
+            MatchHistory h = history;
+            if (h != null && game.isGameOver()) h.submit(MatchHistory.matchOf(game, difficulty, humans, matchColors));
+
+            if (recorder != null) {
+                try { recorder.close(); } catch (IOException e) { System.err.println("replay not saved: " + e.getMessage()); }
+            }
+        }, "GameLoop");
+
+        Thread previous = loopThread;
+        loopThread = loop;
+        if (previous != null) LockSupport.unpark(previous);
+        loop.start();
     }
 
-    private boolean isOccupied(Point cell) {
-        for (Snake other : snakes) {
-            LinkedList<Point> body = other.getBody();
-            for (Point p : body) {
-                if (p.equals(cell)) return true;
+    // Hands a fresh snapshot to the painter (dropped if the game was reset or replaced meanwhile).
+    // The snapshot reuses a pooled frame, so steady ticks allocate nothing however long the snakes are.
+    // Passive mode repaints only the cells that changed: new heads, old heads, removed tails and food;
+    // active mode redraws the whole scene at the next display refresh.
+    private void publish(GameEngine game, FramePool frames, GameMetrics stats) {
+        if (engine != game) return;
+        GameFrame prev = frame;
+        GameFrame next = game.snapshot(frames.spare(prev));
+        Viewport before = viewport;
+        Viewport view = viewportFor(next, before);
+        viewport = view;
+        frame = next;
+        if (next.getInputStamp() != 0) pendingKeyPress.compareAndSet(0, next.getInputStamp()); // keeps the oldest unpainted
+        stats.framePublished();
+
+        long now = System.nanoTime();
+        if (active != null) {
+            if (now - hudRefreshAt >= 0) {
+                stats.sampleAllocation();
+                hudRefreshAt = now + HUD_REFRESH_NANOS;
             }
+            active.invalidateFrame();
+            return;
         }
-        return false;
-    }
 
-    private void spawnFood() {
-        for (int tries = 0; tries < 5000; tries++) {
-            Point p = new Point(rng.nextInt(COLS), rng.nextInt(ROWS));
-            if (!isOccupied(p)) { food = p; return; }
+        // Several steps at once (catching up), a camera move, or a state change that touches the overlay: redraw everything
+        if (prev == null || view != before || next.getSteps() - prev.getSteps() != 1
+                || next.isGameOver() || prev.getPlayers() != next.getPlayers()) {
+            repaint();
+            return;
+        }
+
+        boolean hudDirty = false;
+        for (int i = 0; i < next.getPlayers(); i++) {
+            if (prev.getHead(i) != next.getHead(i)) {
+                repaintCell(view, prev.getHead(i));
+                repaintCell(view, next.getHead(i));
+            }
+            int oldTail = prev.getBodyCell(i, prev.getLength(i) - 1);
+            if (oldTail != next.getBodyCell(i, next.getLength(i) - 1)) repaintCell(view, oldTail);
+
+            if (prev.isAlive(i) != next.isAlive(i)) {
+                repaintCell(view, next.getHead(i)); // head outline goes away
+                hudDirty = true;
+            }
+            if (prev.getScore(i) != next.getScore(i)) hudDirty = true;
+        }
+        for (int k = 0; k < next.getFoodCount(); k++) {
+            if (prev.getFood(k) == next.getFood(k)) continue;
+            if (prev.getFood(k) >= 0) repaintCell(view, prev.getFood(k));
+            if (next.getFood(k) >= 0) repaintCell(view, next.getFood(k));
         }
-        food = null;
-    }
 
-    private void checkGameOver() {
-        int aliveCount = 0;
-        for (Snake s : snakes) if (s.isAlive()) aliveCount++;
-        if (aliveCount <= 1) {
-            gameOver = true;
-            Toolkit.getDefaultToolkit().beep();
-            new Thread(() -> {
-                try { Thread.sleep(200);} catch (Exception ignored) {}
-                Toolkit.getDefaultToolkit().beep();
-            }).start();
+        if (hudDirty || now - hudRefreshAt >= 0) {
+            if (now - hudRefreshAt >= 0) stats.sampleAllocation();
+            repaint(0, 0, SceneRenderer.HUD_WIDTH, SceneRenderer.hudHeight(next.getPlayers(), showMetrics));
+            hudRefreshAt = now + HUD_REFRESH_NANOS;
         }
     }
 
-    private void drawFood(Graphics2D g2, Point food) {
-        int x = food.x * TILE;
-        int y = food.y * TILE;
+    // Whole scene, through whichever painter this panel uses
+    private void redraw() {
+        if (active != null) active.invalidateFrame();
+        else repaint();
+    }
+
+    private void repaintCell(Viewport view, int cell) {
+        if (view.contains(cell)) repaint(view.toX(cell), view.toY(cell), view.getTile(), view.getTile());
+    }
+
+    // Keeps the current camera unless the panel or board size changed, then follows the first live snake
+    private Viewport viewportFor(GameFrame f, Viewport current) {
+        Viewport view = current != null && current.matches(f.getCols(), f.getRows(), getWidth(), getHeight())
+                ? current
+                : Viewport.fit(f.getCols(), f.getRows(), Math.max(1, getWidth()), Math.max(1, getHeight()));
+        for (int i = 0; i < f.getPlayers(); i++) {
+            if (f.isAlive(i)) return view.follow(f.getHead(i));
+        }
+        return view;
+    }
 
-        // fruit
-        g2.setColor(new Color(220, 40, 40));
-        g2.fillOval(x + 3, y + 4, TILE - 6, TILE - 6);
+    // Frames one game loop fills in turn (GameLoop only). A frame is refilled once it is superseded and no
+    // painter holds it; the painters hold at most a couple, so the pool stays at a handful of frames.
+    private static final class FramePool {
+        private GameFrame[] frames = new GameFrame[0];
 
-        // leaf
-        g2.setColor(new Color(80, 160, 80));
-        g2.fillOval(x + TILE/2, y + 2, TILE/4, TILE/4);
+        // A frame to fill: neither the published one nor one a reader holds
+        GameFrame spare(GameFrame published) {
+            for (GameFrame f : frames) {
+                if (f != published && !f.isHeld()) return f;
+            }
+            frames = Arrays.copyOf(frames, frames.length + 1);
+            return frames[frames.length - 1] = new GameFrame();
+        }
     }
 
     // === Painting ===
     public void paintComponent (Graphics g) {
-        super.paintComponent(g);
-
-        // Background
-        g.setColor(Color.BLACK);
-        g.fillRect(0, 0, getWidth(), getHeight());
-
-        // Grid
-        g.setColor(new Color(30,30,30));
-        for (int x=0;x<=COLS;x++) g.drawLine(x*TILE, 0, x*TILE, ROWS*TILE);
-        for (int y=0;y<=ROWS;y++) g.drawLine(0, y*TILE, COLS*TILE, y*TILE);
-
-        // Food
-        if (food != null) {
-//            g.setColor(new Color(0xff6b6b));
-//            fillCell(g, food.x, food.y);
-            drawFood((Graphics2D) g, food);
-        }
+        if (active != null) return; // the canvas covers the panel and draws itself
+        render(renderer, g, getGraphicsConfiguration(), getWidth(), getHeight(), g.getClipBounds(), null, 1);
+        frameShown();
+    }
 
-        // Snakes
-        for (Snake s : snakes) {
-            g.setColor(s.getColor());
-            for (Point p : s.getBody()) fillCell(g, p.x, p.y);
-            if (s.isAlive() && s.getHead()!=null) {
-                g.setColor(Color.WHITE);
-                drawCell(g, s.getHead().x, s.getHead().y);
-            }
+    // Called by the painter once a frame is on its way to the screen
+    void frameShown() {
+        Runnable first = onFirstFrame;
+        if (first != null) {
+            onFirstFrame = null;
+            first.run();
         }
+    }
 
-        // HUD – scores
-        g.setColor(Color.WHITE);
-        int yy = 16;
-        for (Snake s : snakes) {
-            String status = s.isAlive() ? "" : " (מת)";
-            g.drawString("P"+s.getId()+" score: "+s.getScore()+status, 8, yy);
-            yy += 16;
+    // One frame for either painter (EDT or the active render thread), with its own renderer.
+    // prev and alpha tween the snakes between two ticks (see SceneRenderer.draw).
+    void render(SceneRenderer r, Graphics g, GraphicsConfiguration gc, int width, int height, Rectangle clip,
+                GameFrame prev, double alpha) {
+        long keyPress = pendingKeyPress.getAndSet(0); // taken before the frame, so the frame already shows it
+        GameMetrics stats = metrics;
+        r.setMetrics(stats);
+        GameFrame e = holdFrame();
+        if (e == null) {
+            r.drawBlank(g, width, height);
+            return;
+        }
+        try {
+            Viewport view = viewport;
+            if (view == null || !view.matches(e.getCols(), e.getRows(), getWidth(), getHeight())) {
+                view = viewportFor(e, null);
+                viewport = view;
+            }
+            r.draw(g, gc, width, height, view, clip, e, prev, alpha, colors, paused, showMetrics);
+        } finally {
+            e.release();
         }
 
-        if (paused)   drawCenterText(g, "PAUSED (Space)", 26);
-        if (gameOver) drawCenterText(g, "GAME OVER", 28);
+        // End of the input pipeline: the first paint that shows the turn
+        if (keyPress != 0) stats.getShownNanos().record(System.nanoTime() - keyPress);
     }
 
-    private void fillCell(Graphics g, int cx, int cy) {
-        g.fillRect(cx*TILE+1, cy*TILE+1, TILE-2, TILE-2);
-    }
-    private void drawCell(Graphics g, int cx, int cy) {
-        g.drawRect(cx*TILE+1, cy*TILE+1, TILE-2, TILE-2);
-    }
-    private void drawCenterText(Graphics g, String text, int size) {
-        Font f = g.getFont().deriveFont(Font.BOLD, size);
-        g.setFont(f);
-        FontMetrics fm = g.getFontMetrics(f);
-        int tx = (getWidth()-fm.stringWidth(text))/2;
-        int ty = (getHeight()-fm.getHeight())/2 + fm.getAscent();
-        g.setColor(Color.WHITE);
-        g.drawString(text, tx, ty);
+    // Golden-ratio hue steps keep many snakes apart; made once per game, not per frame
+    private static Color extraColor(int i) {
+        return i < DEFAULT_COLORS.length ? DEFAULT_COLORS[i] : Color.getHSBColor((i * 0.618034f) % 1f, 0.65f, 0.95f);
     }
 }
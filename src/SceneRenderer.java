@@ -0,0 +1,226 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Draws a GameFrame: board, food, snakes, HUD and banners. Shared by the passive Swing path
+// (ScenePanel.paintComponent on the EDT) and the active one (ActiveScene's render thread);
+// each painting thread owns its own instance, so the cached background needs no locking.
+public class SceneRenderer {
+    // HUD area in the top-left corner and how many players it lists
+    public static final int HUD_WIDTH = 340;
+    public static final int HUD_PLAYER_ROWS = 8;
+
+    // Shared colors (nothing is allocated per frame)
+    private static final Color BACKGROUND = Color.BLACK;
+    private static final Color GRID = new Color(30, 30, 30);
+    private static final Color FRUIT = new Color(220, 40, 40);
+    private static final Color LEAF = new Color(80, 160, 80);
+
+    private GameMetrics metrics;
+
+    // Background + grid pre-rendered once per surface size and viewport shape
+    private BufferedImage background;
+    private int backgroundTile, backgroundCols, backgroundRows;
+
+    // Frame-time counter
+    private long paintedFrames;
+    private double avgPaintNanos;
+
+    public SceneRenderer(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Session the HUD lines and paint times belong to (the painting thread sets it before drawing)
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Scores, the frame-time line and (when shown) the metrics overlay
+    public static int hudHeight(int players, boolean showMetrics) {
+        int rows = players > HUD_PLAYER_ROWS ? HUD_PLAYER_ROWS + 1 : players;
+        return 16 * (rows + 1 + (showMetrics ? GameMetrics.LINES : 0)) + 8;
+    }
+
+    // Empty scene (no game yet)
+    public void drawBlank(Graphics g, int width, int height) {
+        long t0 = System.nanoTime();
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, width, height);
+        countFrame(t0);
+    }
+
+    // Draws frame e. With prev (the frame one step before e) and alpha < 1, snakes that moved
+    // are drawn part of the way between the two: heads slide into their new cell and removed tails
+    // slide out, alpha = 0 looking like prev and alpha = 1 like e. clip may be null (whole surface).
+    public void draw(Graphics g, GraphicsConfiguration gc, int width, int height, Viewport view, Rectangle clip,
+                     GameFrame e, GameFrame prev, double alpha, Color[] colors, boolean paused, boolean showMetrics) {
+        long t0 = System.nanoTime();
+
+        // Background + grid
+        if (background == null || background.getWidth() != width || background.getHeight() != height
+                || backgroundTile != view.getTile() || backgroundCols != view.getViewCols() || backgroundRows != view.getViewRows()) {
+            background = renderBackground(gc, width, height, view);
+        }
+        g.drawImage(background, 0, 0, null);
+
+        // Food
+        for (int k = 0; k < e.getFoodCount(); k++) {
+            int food = e.getFood(k);
+            if (food >= 0 && isVisible(view, clip, food)) {
+//                g.setColor(new Color(0xff6b6b));
+//                fillCell(g, food.x, food.y);
+                drawFood((Graphics2D) g, view, food);
+            }
+        }
+
+        // Snakes
+        boolean tween = prev != null && alpha < 1 && prev.getPlayers() == e.getPlayers();
+        for (int i = 0; i < e.getPlayers(); i++) {
+            int length = e.getLength(i);
+            if (length == 0) continue;
+            boolean moved = tween && prev.getLength(i) > 0 && prev.getHead(i) != e.getHead(i)
+                    && isNeighbour(e.getCols(), prev.getHead(i), e.getHead(i));
+
+            g.setColor(colorOf(colors, i));
+            for (int k = moved ? 1 : 0; k < length; k++) {
+                int cell = e.getBodyCell(i, k);
+                if (isVisible(view, clip, cell)) fillCell(g, view, cell);
+            }
+            if (!moved) {
+                if (e.isAlive(i) && isVisible(view, clip, e.getHead(i))) {
+                    g.setColor(Color.WHITE);
+                    drawCell(g, view, e.getHead(i));
+                }
+                continue;
+            }
+
+            int oldTail = prev.getBodyCell(i, prev.getLength(i) - 1), tail = e.getBodyCell(i, length - 1);
+            if (oldTail != tail && isNeighbour(e.getCols(), oldTail, tail) && view.contains(oldTail) && view.contains(tail)) {
+                fillCell(g, lerp(view.toX(oldTail), view.toX(tail), alpha), lerp(view.toY(oldTail), view.toY(tail), alpha), view.getTile());
+            }
+            int from = prev.getHead(i), to = e.getHead(i);
+            if (view.contains(from) && view.contains(to)) {
+                int x = lerp(view.toX(from), view.toX(to), alpha), y = lerp(view.toY(from), view.toY(to), alpha);
+                fillCell(g, x, y, view.getTile());
+                if (e.isAlive(i)) {
+                    g.setColor(Color.WHITE);
+                    g.drawRect(x + 1, y + 1, view.getTile() - 2, view.getTile() - 2);
+                }
+            }
+        }
+
+        // HUD – scores
+        g.setColor(Color.WHITE);
+        int yy = 16;
+        for (int i = 0; i < Math.min(e.getPlayers(), HUD_PLAYER_ROWS); i++) {
+            String status = e.isAlive(i) ? "" : " (מת)";
+            g.drawString("P"+e.getId(i)+" score: "+e.getScore(i)+status, 8, yy);
+            yy += 16;
+        }
+        if (e.getPlayers() > HUD_PLAYER_ROWS) {
+            int alive = 0;
+            for (int i = HUD_PLAYER_ROWS; i < e.getPlayers(); i++) if (e.isAlive(i)) alive++;
+            g.drawString("+" + (e.getPlayers() - HUD_PLAYER_ROWS) + " more, " + alive + " alive", 8, yy);
+            yy += 16;
+        }
+        g.drawString(String.format("frame: %.2f ms (%d painted)", avgPaintNanos / 1e6, paintedFrames), 8, yy);
+        if (showMetrics) {
+            for (String line : metrics.lines()) {
+                yy += 16;
+                g.drawString(line, 8, yy);
+            }
+        }
+
+        if (paused)   drawCenterText(g, width, height, "PAUSED (Space)", 26);
+        if (e.isGameOver()) drawCenterText(g, width, height, "GAME OVER", 28);
+        countFrame(t0);
+    }
+
+    private static Color colorOf(Color[] colors, int i) {
+        return i < colors.length ? colors[i] : ScenePanel.DEFAULT_COLORS[i % ScenePanel.DEFAULT_COLORS.length];
+    }
+
+    // Exponential moving average of draw time
+    private void countFrame(long t0) {
+        long dt = System.nanoTime() - t0;
+        avgPaintNanos = paintedFrames == 0 ? dt : avgPaintNanos * 0.9 + dt * 0.1;
+        paintedFrames++;
+        metrics.getPaintNanos().record(dt);
+        metrics.framePainted();
+    }
+
+    private BufferedImage renderBackground(GraphicsConfiguration gc, int width, int height, Viewport view) {
+        BufferedImage img = gc != null
+                ? gc.createCompatibleImage(Math.max(1, width), Math.max(1, height))
+                : new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+        Graphics g = img.createGraphics();
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, width, height);
+        // The camera moves in whole cells, so the same grid works for every camera position
+        int tile = view.getTile(), cols = view.getViewCols(), rows = view.getViewRows();
+        g.setColor(GRID);
+        for (int x=0;x<=cols;x++) g.drawLine(x*tile, 0, x*tile, rows*tile);
+        for (int y=0;y<=rows;y++) g.drawLine(0, y*tile, cols*tile, y*tile);
+        g.dispose();
+
+        backgroundTile = tile;
+        backgroundCols = cols;
+        backgroundRows = rows;
+        return img;
+    }
+
+    private void drawFood(Graphics2D g2, Viewport view, int food) {
+        int x = view.toX(food);
+        int y = view.toY(food);
+        int tile = view.getTile();
+
+        // Too small for the apple shape: a plain red cell
+        if (tile < 8) {
+            g2.setColor(FRUIT);
+            g2.fillRect(x, y, tile, tile);
+            return;
+        }
+
+        // fruit
+        g2.setColor(FRUIT);
+        g2.fillOval(x + 3, y + 4, tile - 6, tile - 6);
+
+        // leaf
+        g2.setColor(LEAF);
+        g2.fillOval(x + tile/2, y + 2, tile/4, tile/4);
+    }
+
+    private static boolean isVisible(Viewport view, Rectangle clip, int cell) {
+        if (!view.contains(cell)) return false;
+        if (clip == null) return true;
+        int px = view.toX(cell), py = view.toY(cell), tile = view.getTile();
+        return px < clip.x + clip.width && px + tile > clip.x && py < clip.y + clip.height && py + tile > clip.y;
+    }
+
+    // Cells one step apart (a wrap or respawn jump is drawn without tweening)
+    private static boolean isNeighbour(int cols, int a, int b) {
+        return Math.abs(a % cols - b % cols) + Math.abs(a / cols - b / cols) == 1;
+    }
+
+    private static int lerp(int a, int b, double t) {
+        return a + (int) Math.round((b - a) * t);
+    }
+
+    private void fillCell(Graphics g, Viewport view, int cell) {
+        fillCell(g, view.toX(cell), view.toY(cell), view.getTile());
+    }
+    private void fillCell(Graphics g, int x, int y, int tile) {
+        g.fillRect(x+1, y+1, tile-2, tile-2);
+    }
+    private void drawCell(Graphics g, Viewport view, int cell) {
+        g.drawRect(view.toX(cell)+1, view.toY(cell)+1, view.getTile()-2, view.getTile()-2);
+    }
+    private void drawCenterText(Graphics g, int width, int height, String text, int size) {
+        Font f = g.getFont().deriveFont(Font.BOLD, size);
+        g.setFont(f);
+        FontMetrics fm = g.getFontMetrics(f);
+        int tx = (width-fm.stringWidth(text))/2;
+        int ty = (height-fm.getHeight())/2 + fm.getAscent();
+        g.setColor(Color.WHITE);
+        g.drawString(text, tx, ty);
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.Arrays;
+
+// Snake body as a growable circular buffer of packed cell indices (y*COLS + x).
+// Index 0 is the head; addFirst/removeLast/get never allocate once the buffer is big enough.
+public class SnakeBody {
+    private int[] cells;
+    private int head;   // slot of the first (head) segment
+    private int size;
+
+    public SnakeBody(int initialCapacity) {
+        this.cells = new int[Math.max(4, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1)];
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public int peekFirst() { return cells[head]; }
+    public int peekLast() { return cells[(head + size - 1) & (cells.length - 1)]; }
+
+    // i-th segment counted from the head
+    public int get(int i) { return cells[(head + i) & (cells.length - 1)]; }
+
+    public void addFirst(int cell) {
+        if (size == cells.length) grow();
+        head = (head - 1) & (cells.length - 1);
+        cells[head] = cell;
+        size++;
+    }
+
+    public void addLast(int cell) {
+        if (size == cells.length) grow();
+        cells[(head + size) & (cells.length - 1)] = cell;
+        size++;
+    }
+
+    public int removeLast() {
+        int cell = peekLast();
+        size--;
+        return cell;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Capacity stays a power of two so wrap-around is a mask instead of a modulo
+    private void grow() {
+        int[] bigger = new int[cells.length << 1];
+        for (int i = 0; i < size; i++) bigger[i] = get(i);
+        cells = bigger;
+        head = 0;
+    }
+
+    @Override
+    public String toString() {
+        int[] copy = new int[size];
+        for (int i = 0; i < size; i++) copy[i] = get(i);
+        return Arrays.toString(copy);
+    }
+}
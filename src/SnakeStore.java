@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+// Every snake of a match as parallel primitive arrays (structure of arrays), indexed 0..count-1;
+// the player id is index + 1. The step loop walks these arrays instead of chasing one object per snake.
+// Bodies are ring buffers carved out of one shared cell pool: snake i owns the power-of-two region
+// pool[bodyOffset[i] .. bodyOffset[i] + bodyMask[i]] with its head at slot bodyHead[i]. A full ring moves
+// to a region twice as large at the end of the pool, and the pool is compacted once most of it is abandoned.
+public final class SnakeStore {
+    private static final Snake.Direction[] DIRS = Snake.Direction.values();
+    private static final int MIN_BODY = 16;
+
+    private int count;
+    private int aliveCount;
+    private byte[] dirs = new byte[0];
+    private boolean[] alive = new boolean[0];
+    private long[] speeds = new long[0];
+    private int[] scores = new int[0];
+    private long[] nextStepAt = new long[0];
+
+    // Bodies
+    private int[] pool = new int[0];
+    private int poolUsed; // end of the last region handed out
+    private int poolLive; // cells in regions still owned by a snake
+    private int[] bodyOffset = new int[0], bodyMask = new int[0], bodyHead = new int[0], bodyLength = new int[0];
+
+    // Drops every snake and makes room for n
+    public void reset(int n) {
+        count = n;
+        aliveCount = 0;
+        if (dirs.length != n) {
+            dirs = new byte[n];
+            alive = new boolean[n];
+            speeds = new long[n];
+            scores = new int[n];
+            nextStepAt = new long[n];
+            bodyOffset = new int[n];
+            bodyMask = new int[n];
+            bodyHead = new int[n];
+            bodyLength = new int[n];
+        }
+        Arrays.fill(alive, false);
+        poolUsed = 0;
+        poolLive = 0;
+    }
+
+    // Sets up snake i alive with an empty body of room for at least capacity cells
+    public void init(int i, Snake.Direction dir, long speedMillis, int capacity) {
+        int cap = Math.max(MIN_BODY, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        reserve(cap);
+        bodyOffset[i] = poolUsed;
+        bodyMask[i] = cap - 1;
+        bodyHead[i] = 0;
+        bodyLength[i] = 0;
+        poolUsed += cap;
+        poolLive += cap;
+
+        dirs[i] = (byte) dir.ordinal();
+        speeds[i] = speedMillis;
+        scores[i] = 0;
+        nextStepAt[i] = 0;
+        if (!alive[i]) aliveCount++;
+        alive[i] = true;
+    }
+
+    public int count() { return count; }
+    public int aliveCount() { return aliveCount; }
+
+    public Snake.Direction dir(int i) { return DIRS[dirs[i]]; }
+    public void setDir(int i, Snake.Direction d) { dirs[i] = (byte) d.ordinal(); }
+
+    public boolean isAlive(int i) { return alive[i]; }
+    public void setAlive(int i, boolean a) {
+        if (alive[i] != a) aliveCount += a ? 1 : -1;
+        alive[i] = a;
+    }
+
+    public long speed(int i) { return speeds[i]; }
+    public void setSpeed(int i, long millis) { speeds[i] = millis; }
+    public int score(int i) { return scores[i]; }
+    public void setScore(int i, int score) { scores[i] = score; }
+    public long nextStepAt(int i) { return nextStepAt[i]; }
+    public void setNextStepAt(int i, long t) { nextStepAt[i] = t; }
+
+    // Earliest due time among live snakes (Long.MAX_VALUE when none)
+    public long earliestDue() {
+        long due = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (alive[i] && nextStepAt[i] < due) due = nextStepAt[i];
+        }
+        return due;
+    }
+
+    // === Bodies ===
+    public int length(int i) { return bodyLength[i]; }
+    public int head(int i) { return cell(i, 0); }
+    public int tail(int i) { return cell(i, bodyLength[i] - 1); }
+    public int cell(int i, int k) { return pool[bodyOffset[i] + ((bodyHead[i] + k) & bodyMask[i])]; }
+
+    public void addFirst(int i, int c) {
+        if (bodyLength[i] > bodyMask[i]) grow(i);
+        bodyHead[i] = (bodyHead[i] - 1) & bodyMask[i];
+        pool[bodyOffset[i] + bodyHead[i]] = c;
+        bodyLength[i]++;
+    }
+
+    public void addLast(int i, int c) {
+        if (bodyLength[i] > bodyMask[i]) grow(i);
+        pool[bodyOffset[i] + ((bodyHead[i] + bodyLength[i]) & bodyMask[i])] = c;
+        bodyLength[i]++;
+    }
+
+    public int removeLast(int i) {
+        bodyLength[i]--;
+        return pool[bodyOffset[i] + ((bodyHead[i] + bodyLength[i]) & bodyMask[i])];
+    }
+
+    // Moves a full ring to a region twice its size, unrolled so the head is at slot 0
+    private void grow(int i) {
+        int oldCap = bodyMask[i] + 1, cap = oldCap * 2;
+        reserve(cap);
+        int from = bodyOffset[i], to = poolUsed;
+        for (int k = 0; k < bodyLength[i]; k++) pool[to + k] = pool[from + ((bodyHead[i] + k) & bodyMask[i])];
+        bodyOffset[i] = to;
+        bodyMask[i] = cap - 1;
+        bodyHead[i] = 0;
+        poolUsed += cap;
+        poolLive += cap - oldCap;
+    }
+
+    private void reserve(int cells) {
+        if (poolUsed + cells <= pool.length) return;
+        if (poolUsed - poolLive > poolLive) compact();
+        if (poolUsed + cells > pool.length) pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolUsed + cells));
+    }
+
+    // Packs the live regions to the front of a fresh pool, in snake order
+    private void compact() {
+        int[] packed = new int[Math.max(pool.length, poolLive * 2)];
+        int at = 0;
+        for (int i = 0; i < count; i++) {
+            int cap = bodyMask[i] + 1;
+            System.arraycopy(pool, bodyOffset[i], packed, at, cap);
+            bodyOffset[i] = at;
+            at += cap;
+        }
+        pool = packed;
+        poolUsed = at;
+    }
+}
@@ -0,0 +1,128 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Sound effects for every game, mixed on one thread into one SourceDataLine.
+// The clips are synthesized once into 16-bit PCM arrays when the mixer starts. play() only bumps a
+// per-effect counter and unparks the mixer, so the game loop never blocks, allocates or starts threads
+// for audio; events that arrive within one chunk (~12 ms) start one voice per effect.
+// The mixer parks while nothing plays. Without an audio device, or with -Dsnake.mute=true, play() does nothing.
+public final class SoundMixer {
+    public enum Effect { EAT, GAME_OVER, RESET }
+
+    private static final float RATE = 22050f;
+    private static final int CHUNK = 256;      // frames per write
+    private static final int LINE_CHUNKS = 4;  // line buffer, in chunks
+    private static final int MAX_VOICES = 8;
+    private static final double VOLUME = 0.3;  // of full scale per voice, so a few voices rarely clip
+
+    private static final SoundMixer SHARED = new SoundMixer();
+
+    private final AtomicIntegerArray pending = new AtomicIntegerArray(Effect.values().length);
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Thread thread;
+    private volatile boolean disabled = Boolean.getBoolean("snake.mute");
+
+    private SoundMixer() {}
+
+    public static SoundMixer shared() { return SHARED; }
+
+    // Starts the mixer thread (once); call from UI code before the first play()
+    public void start() {
+        if (disabled || !started.compareAndSet(false, true)) return;
+        Thread t = new Thread(this::mix, "SoundMixer");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    // Queues an effect; lock-free and safe from any thread
+    public void play(Effect effect) {
+        if (disabled) return;
+        pending.incrementAndGet(effect.ordinal());
+        LockSupport.unpark(thread);
+    }
+
+    // === Mixer thread ===
+    private void mix() {
+        short[][] clips = synthesize();
+        SourceDataLine line;
+        try {
+            AudioFormat format = new AudioFormat(RATE, 16, 1, true, false);
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format, CHUNK * 2 * LINE_CHUNKS);
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            disabled = true;
+            System.err.println("sound disabled: " + e.getMessage());
+            return;
+        }
+
+        int[] voiceClip = new int[MAX_VOICES], voicePos = new int[MAX_VOICES];
+        int voices = 0;
+        int[] sum = new int[CHUNK];
+        byte[] out = new byte[CHUNK * 2];
+        while (true) {
+            for (int e = 0; e < clips.length; e++) {
+                if (pending.get(e) == 0 || pending.getAndSet(e, 0) == 0 || voices == MAX_VOICES) continue;
+                voiceClip[voices] = e;
+                voicePos[voices++] = 0;
+            }
+            if (voices == 0) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            Arrays.fill(sum, 0);
+            for (int v = 0; v < voices; v++) {
+                short[] clip = clips[voiceClip[v]];
+                int pos = voicePos[v], n = Math.min(CHUNK, clip.length - pos);
+                for (int k = 0; k < n; k++) sum[k] += clip[pos + k];
+                voicePos[v] = pos + n;
+                if (voicePos[v] == clip.length) { // finished: the last voice takes its slot
+                    voices--;
+                    voiceClip[v] = voiceClip[voices];
+                    voicePos[v--] = voicePos[voices];
+                }
+            }
+            for (int k = 0; k < CHUNK; k++) {
+                int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sum[k]));
+                out[2 * k] = (byte) s;
+                out[2 * k + 1] = (byte) (s >> 8);
+            }
+            line.write(out, 0, out.length); // blocks this thread only, which paces the mixing
+        }
+    }
+
+    // One clip per Effect, in ordinal order
+    private static short[][] synthesize() {
+        short[][] clips = new short[Effect.values().length][];
+        clips[Effect.EAT.ordinal()] = clip(0.07, new double[][] {{0, 0.06, 880, 1320}});
+        // Two notes 200 ms apart, like the old double beep
+        clips[Effect.GAME_OVER.ordinal()] = clip(0.36, new double[][] {{0, 0.15, 440, 440}, {0.2, 0.35, 330, 330}});
+        clips[Effect.RESET.ordinal()] = clip(0.09, new double[][] {{0, 0.08, 660, 660}});
+        return clips;
+    }
+
+    // Clip of the given length with sine sweeps {start s, end s, from Hz, to Hz}, faded in and out to avoid clicks
+    private static short[] clip(double seconds, double[][] notes) {
+        short[] pcm = new short[(int) (seconds * RATE)];
+        int fade = (int) (0.005 * RATE);
+        for (double[] note : notes) {
+            int from = (int) (note[0] * RATE), to = Math.min(pcm.length, (int) (note[1] * RATE));
+            double phase = 0;
+            for (int k = from; k < to; k++) {
+                double t = (double) (k - from) / (to - from);
+                phase += 2 * Math.PI * (note[2] + (note[3] - note[2]) * t) / RATE;
+                double envelope = Math.min(1, Math.min(k - from, to - 1 - k) / (double) fade);
+                pcm[k] = (short) (Math.sin(phase) * envelope * VOLUME * Short.MAX_VALUE);
+            }
+        }
+        return pcm;
+    }
+}
@@ -0,0 +1,31 @@
+// Stays alive as long as possible: moves towards the side with the most room,
+// measured by a bounded flood fill from each free neighbour.
+public class SurvivalBot implements BotController {
+    private final BoardSearch search;
+
+    public SurvivalBot(BoardSearch search) {
+        this.search = search;
+    }
+
+    @Override
+    public Snake.Direction decide(GameEngine engine, int i) {
+        Snake.Direction dir = engine.getDir(i);
+        int head = engine.getHead(i);
+        // Room needed to count as safe; beyond that every side is equally good and straight wins
+        int enough = Math.min(search.getBudget(), engine.getLength(i) * 2 + 16);
+
+        Snake.Direction best = null;
+        int bestRoom = 0;
+        for (Snake.Direction d : Snake.Direction.values()) {
+            if (Snake.isOpposite(dir, d)) continue;
+            int n = search.neighbour(head, d);
+            if (n < 0) continue;
+            int room = search.reachable(n, enough);
+            if (room > bestRoom || (room == bestRoom && d == dir)) {
+                best = d;
+                bestRoom = room;
+            }
+        }
+        return best == dir ? null : best;
+    }
+}
@@ -0,0 +1,69 @@
+// Which part of the board is on screen, and at what tile size.
+// Boards that fit are scaled to the panel (up to MAX_TILE px per cell); larger boards are drawn at
+// MIN_TILE with a camera that follows a cell. The camera only re-centres when the target gets within a
+// quarter screen of an edge, so most ticks keep the same view and the dirty-rect repaint still applies.
+public final class Viewport {
+    public static final int MAX_TILE = 20;
+    public static final int MIN_TILE = 4;
+
+    private final int boardCols, boardRows;
+    private final int width, height;
+    private final int tile;
+    private final int viewCols, viewRows;
+    private final int camX, camY;
+
+    private Viewport(int boardCols, int boardRows, int width, int height, int tile, int camX, int camY) {
+        this.boardCols = boardCols;
+        this.boardRows = boardRows;
+        this.width = width;
+        this.height = height;
+        this.tile = tile;
+        this.viewCols = Math.min(boardCols, Math.max(1, width / tile));
+        this.viewRows = Math.min(boardRows, Math.max(1, height / tile));
+        this.camX = camX;
+        this.camY = camY;
+    }
+
+    public static Viewport fit(int boardCols, int boardRows, int width, int height) {
+        int tile = Math.min(width / boardCols, height / boardRows);
+        tile = Math.max(MIN_TILE, Math.min(MAX_TILE, tile));
+        return new Viewport(boardCols, boardRows, width, height, tile, 0, 0);
+    }
+
+    // Same view, or a re-centred one when the cell is near (or past) an edge of the view
+    public Viewport follow(int cell) {
+        if (cell < 0) return this;
+        int nx = recentre(cell % boardCols, camX, viewCols, boardCols);
+        int ny = recentre(cell / boardCols, camY, viewRows, boardRows);
+        if (nx == camX && ny == camY) return this;
+        return new Viewport(boardCols, boardRows, width, height, tile, nx, ny);
+    }
+
+    private static int recentre(int target, int cam, int view, int board) {
+        int margin = view / 4;
+        boolean nearLow = target < cam + margin && cam > 0;
+        boolean nearHigh = target >= cam + view - margin && cam + view < board;
+        if (!nearLow && !nearHigh) return cam;
+        return Math.max(0, Math.min(board - view, target - view / 2));
+    }
+
+    public boolean matches(int boardCols, int boardRows, int width, int height) {
+        return this.boardCols == boardCols && this.boardRows == boardRows
+                && this.width == width && this.height == height;
+    }
+
+    public boolean contains(int cell) {
+        int x = cell % boardCols - camX, y = cell / boardCols - camY;
+        return x >= 0 && x < viewCols && y >= 0 && y < viewRows;
+    }
+
+    // Pixel position of a cell's top-left corner
+    public int toX(int cell) { return (cell % boardCols - camX) * tile; }
+    public int toY(int cell) { return (cell / boardCols - camY) * tile; }
+
+    public int getTile() { return tile; }
+    public int getViewCols() { return viewCols; }
+    public int getViewRows() { return viewRows; }
+    public int getCamX() { return camX; }
+    public int getCamY() { return camY; }
+}
@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeCellsTest {
+
+    @Test
+    void fillClearAddRemove() {
+        FreeCells free = new FreeCells(10);
+        assertEquals(0, free.size());
+        assertEquals(-1, free.pick(new Random(1)));
+
+        free.fill();
+        assertEquals(10, free.size());
+        free.remove(3);
+        free.remove(3); // already gone
+        assertFalse(free.contains(3));
+        assertEquals(9, free.size());
+        free.add(5); // already there
+        assertEquals(9, free.size());
+        free.add(3);
+        assertTrue(free.contains(3));
+        assertEquals(10, free.size());
+
+        free.clear();
+        assertEquals(0, free.size());
+        for (int c = 0; c < 10; c++) assertFalse(free.contains(c));
+    }
+
+    // Random adds and removes against a HashSet; pick() only ever returns a member
+    @Test
+    void matchesASetUnderRandomChanges() {
+        int capacity = 200;
+        FreeCells free = new FreeCells(capacity);
+        Set<Integer> model = new HashSet<>();
+        Random rng = new Random(42);
+        for (int op = 0; op < 20_000; op++) {
+            int cell = rng.nextInt(capacity);
+            if (rng.nextBoolean()) { free.add(cell); model.add(cell); }
+            else { free.remove(cell); model.remove(cell); }
+
+            assertEquals(model.size(), free.size());
+            assertEquals(model.contains(cell), free.contains(cell));
+            int picked = free.pick(rng);
+            if (model.isEmpty()) assertEquals(-1, picked);
+            else assertTrue(model.contains(picked));
+        }
+        Set<Integer> listed = new HashSet<>();
+        for (int c : free.toArray()) listed.add(c);
+        assertEquals(model, listed);
+    }
+
+    // load(toArray()) keeps the order, so picks with the same seed agree (replays rely on it)
+    @Test
+    void loadRestoresOrder() {
+        FreeCells free = new FreeCells(64);
+        free.fill();
+        Random rng = new Random(7);
+        for (int k = 0; k < 30; k++) free.remove(rng.nextInt(64));
+
+        FreeCells copy = new FreeCells(64);
+        copy.load(free.toArray());
+        assertArrayEquals(free.toArray(), copy.toArray());
+        Random a = new Random(99), b = new Random(99);
+        for (int k = 0; k < 100; k++) assertEquals(free.pick(a), copy.pick(b));
+    }
+}
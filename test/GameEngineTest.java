@@ -0,0 +1,229 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Move resolution on hand-built situations. Snakes start stacked on their spawn cell (see GameEngine.start):
+// with two players on a cols x rows board, player 1 starts at (cols/4, rows/2) heading right and player 2
+// at (3*cols/4, rows/2) heading left. Food lands at random, so each test picks the first seed whose food
+// does not disturb it.
+class GameEngineTest {
+
+    @Test
+    void wallKills() {
+        GameEngine e = started(4, 3, 1, 1, g -> true);
+        e.step(); // (2,1)
+        e.step(); // (3,1)
+        assertTrue(e.isAlive(0));
+        e.step();
+        assertFalse(e.isAlive(0));
+        assertTrue(e.isGameOver());
+        assertEquals(e.cellIndex(3, 1), e.getHead(0));
+    }
+
+    @Test
+    void headsOnTheSameCellBothDie() {
+        GameEngine e = started(4, 3, 2, 2, g -> true);
+        e.step(); // both want (2,1)
+        assertFalse(e.isAlive(0));
+        assertFalse(e.isAlive(1));
+        assertTrue(e.isGameOver());
+        assertEquals(0, e.getWinner());
+    }
+
+    @Test
+    void headsSwappingCellsBothDie() {
+        GameEngine e = started(6, 3, 2, 2, foodNotAt(2, 1, 3, 1));
+        e.step(); // (2,1) and (3,1), face to face
+        assertTrue(e.isAlive(0) && e.isAlive(1));
+        e.step();
+        assertFalse(e.isAlive(0));
+        assertFalse(e.isAlive(1));
+    }
+
+    // A snake of four cells circling a 2x2 square always moves onto its own tail as the tail leaves
+    @Test
+    void headMayFollowItsOwnLeavingTail() {
+        Circling c = circling(4);
+        GameEngine e = c.engine();
+        for (int k = 0; k < 40; k++) {
+            e.setDirection(1, c.turns()[k % 4]);
+            assertTrue(e.step());
+            assertTrue(e.isAlive(0), "died at move " + (k + 1));
+        }
+        assertEquals(4, e.getLength(0));
+    }
+
+    // One more cell and the square is too small: the fourth move lands on a cell that stays covered
+    @Test
+    void headOnABodyCellThatStaysDies() {
+        Circling c = circling(5);
+        GameEngine e = c.engine();
+        for (int k = 0; k < 3; k++) {
+            e.setDirection(1, c.turns()[k]);
+            e.step();
+            assertTrue(e.isAlive(0));
+        }
+        e.setDirection(1, c.turns()[3]);
+        e.step();
+        assertFalse(e.isAlive(0));
+    }
+
+    // Player 1 runs right into (6,4) on the fourth step, the same step player 2's last stacked segment leaves it
+    @Test
+    void headMayTakeAnotherSnakesLeavingTail() {
+        GameEngine e = started(8, 8, 2, 4, foodNotAt(3, 4, 4, 4, 5, 4, 6, 4, 6, 3, 6, 2, 6, 1, 6, 0));
+        e.setDirection(2, Snake.Direction.UP);
+        for (int k = 0; k < 4; k++) e.step();
+        assertTrue(e.isAlive(0));
+        assertTrue(e.isAlive(1));
+        assertEquals(e.cellIndex(6, 4), e.getHead(0));
+        assertEquals(e.cellIndex(6, 3), e.getBodyCell(1, 3));
+    }
+
+    // Same race, but player 2 eats on that step, so its tail stays and player 1 dies
+    @Test
+    void eatingKeepsTheTail() {
+        GameEngine e = started(8, 8, 2, 4, g -> g.getFood(0) == g.cellIndex(6, 0));
+        e.setDirection(2, Snake.Direction.UP);
+        for (int k = 0; k < 3; k++) e.step();
+        assertTrue(e.isAlive(0));
+        e.step();
+        assertFalse(e.isAlive(0));
+        assertTrue(e.isAlive(1));
+        assertEquals(1, e.getScore(1));
+        assertEquals(5, e.getLength(1));
+        assertEquals(e.cellIndex(6, 4), e.getBodyCell(1, 4));
+    }
+
+    // Regression for food refilled while a step was still moving snakes: food must never appear under a snake
+    // or be eaten on the step it appeared, and live snakes never share a cell. Seeded matches of four bots on
+    // small, crowded boards, where that bug shows up within the first dozen matches.
+    @Test
+    void botMatchesKeepTheBoardConsistent() {
+        for (long seed = 0; seed < 300; seed++) {
+            int n = seed % 2 == 0 ? 10 : 8;
+            GameEngine e = new GameEngine(n, n, seed);
+            e.start(4, 100, n == 8 ? 6 : 3);
+            BoardSearch search = new BoardSearch(e);
+            for (int id = 1; id <= 4; id++) e.setBot(id, id % 2 == 0 ? new FoodSeekerBot(search) : new SurvivalBot(search));
+
+            while (!e.isGameOver() && e.getSteps() < 2000) {
+                boolean[] hadFood = new boolean[n * n];
+                for (int k = 0; k < e.getFoodCount(); k++) if (e.getFood(k) >= 0) hadFood[e.getFood(k)] = true;
+                int[] scores = new int[e.getPlayers()];
+                for (int i = 0; i < scores.length; i++) scores[i] = e.getScore(i);
+                e.step();
+
+                int[] owner = new int[n * n];
+                for (int i = 0; i < e.getPlayers(); i++) {
+                    if (e.getScore(i) > scores[i]) {
+                        assertTrue(hadFood[e.getHead(i)], "seed " + seed + ": ate food that was not on the board before the step");
+                    }
+                    if (!e.isAlive(i)) continue;
+                    for (int k = 0; k < e.getLength(i); k++) {
+                        int c = e.getBodyCell(i, k);
+                        assertTrue(owner[c] == 0 || owner[c] == i + 1, "seed " + seed + ": two snakes on cell " + c);
+                        owner[c] = i + 1;
+                    }
+                }
+                for (int k = 0; k < e.getFoodCount(); k++) {
+                    int c = e.getFood(k);
+                    if (c >= 0) assertEquals(0, owner[c], "seed " + seed + ": food under a snake");
+                }
+            }
+        }
+    }
+
+    @Test
+    void keyframeResumesExactly() {
+        GameEngine e = new GameEngine(100, 100, 11);
+        e.start(2, 100, 3);
+        Random pilot = new Random(5);
+        for (int k = 0; k < 200; k++) steerAndStep(e, pilot);
+        assertFalse(e.isGameOver());
+        GameEngine.Keyframe key = e.saveKeyframe();
+        long pilotSeed = pilot.nextLong();
+
+        Random after = new Random(pilotSeed);
+        for (int k = 0; k < 2000 && !e.isGameOver(); k++) steerAndStep(e, after);
+        String expected = signature(e);
+
+        e.loadKeyframe(key);
+        assertEquals(200, e.getSteps());
+        after = new Random(pilotSeed);
+        for (int k = 0; k < 2000 && !e.isGameOver(); k++) steerAndStep(e, after);
+        assertEquals(expected, signature(e));
+    }
+
+    @Test
+    void boardSizeIsBounded() {
+        assertEquals(2000 * 2000, GameEngine.cellCount(2000, 2000));
+        assertThrows(IllegalArgumentException.class, () -> new GameEngine(50_000, 50_000, 1));
+        assertThrows(IllegalArgumentException.class, () -> new GameEngine(0, 10, 1));
+    }
+
+    // === Helpers ===
+    private record Circling(GameEngine engine, Snake.Direction[] turns) {}
+
+    // One snake of the given length at (5,10) on a 20x20 board, with the turns that circle a 2x2 square
+    // next to it without eating (the first turn is vertical, so it is legal when heading right)
+    private static Circling circling(int length) {
+        Snake.Direction U = Snake.Direction.UP, D = Snake.Direction.DOWN, L = Snake.Direction.LEFT, R = Snake.Direction.RIGHT;
+        Snake.Direction[][] loops = {{D, R, U, L}, {D, L, U, R}, {U, R, D, L}, {U, L, D, R}};
+        GameEngine e = new GameEngine(20, 20, 1);
+        e.start(1, 100, 1, length);
+        assertEquals(e.cellIndex(5, 10), e.getHead(0));
+        for (Snake.Direction[] loop : loops) {
+            int x = 5, y = 10;
+            boolean clear = true;
+            for (Snake.Direction d : loop) {
+                switch (d) {
+                    case UP -> y--;
+                    case DOWN -> y++;
+                    case LEFT -> x--;
+                    case RIGHT -> x++;
+                }
+                clear &= !e.hasFood(e.cellIndex(x, y));
+            }
+            if (clear) return new Circling(e, loop);
+        }
+        throw new AssertionError("unreachable: one food item blocks at most two of the loops");
+    }
+
+    // Engine started with the first seed the condition accepts
+    private static GameEngine started(int cols, int rows, int players, int startLength, Predicate<GameEngine> accept) {
+        for (long seed = 0; seed < 100_000; seed++) {
+            GameEngine e = new GameEngine(cols, rows, seed);
+            e.start(players, 100, 1, startLength);
+            if (accept.test(e)) return e;
+        }
+        throw new AssertionError("no seed fits");
+    }
+
+    // Accepts an engine without food on any of the (x, y) pairs
+    private static Predicate<GameEngine> foodNotAt(int... xy) {
+        return e -> {
+            for (int k = 0; k < xy.length; k += 2) if (e.hasFood(e.cellIndex(xy[k], xy[k + 1]))) return false;
+            return true;
+        };
+    }
+
+    private static void steerAndStep(GameEngine e, Random pilot) {
+        for (int i = 0; i < e.getPlayers(); i++) if (e.isAlive(i)) BatchRunner.steer(e, i, pilot);
+        e.step();
+    }
+
+    // Everything visible about the match, for comparing two runs
+    static String signature(GameEngine e) {
+        StringBuilder sb = new StringBuilder().append(e.getSteps()).append(':').append(e.getTime()).append(':');
+        for (int i = 0; i < e.getPlayers(); i++) {
+            sb.append(e.getScore(i)).append(',').append(e.isAlive(i)).append(',').append(e.getDir(i)).append(',');
+            for (int k = 0; k < e.getLength(i); k++) sb.append(e.getBodyCell(i, k)).append(' ');
+        }
+        for (int k = 0; k < e.getFoodCount(); k++) sb.append('f').append(e.getFood(k));
+        return sb.toString();
+    }
+}
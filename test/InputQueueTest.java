@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputQueueTest {
+
+    @Test
+    void pollsInOfferOrderWithStamps() {
+        InputQueue q = new InputQueue(4);
+        assertNull(q.poll());
+        assertTrue(q.offer(Snake.Direction.UP, 10));
+        assertTrue(q.offer(Snake.Direction.LEFT, 20));
+        assertTrue(q.offer(Snake.Direction.DOWN));
+
+        assertEquals(Snake.Direction.UP, q.poll());
+        assertEquals(10, q.getLastStamp());
+        assertEquals(Snake.Direction.LEFT, q.poll());
+        assertEquals(20, q.getLastStamp());
+        assertEquals(Snake.Direction.DOWN, q.poll());
+        assertEquals(0, q.getLastStamp());
+        assertNull(q.poll());
+    }
+
+    @Test
+    void dropsInputWhenFullAndAcceptsAgainAfterPoll() {
+        InputQueue q = new InputQueue(4);
+        for (int k = 0; k < 4; k++) assertTrue(q.offer(Snake.Direction.values()[k]));
+        assertFalse(q.offer(Snake.Direction.UP));
+
+        assertEquals(Snake.Direction.values()[0], q.poll());
+        assertTrue(q.offer(Snake.Direction.RIGHT));
+        for (int k = 1; k < 4; k++) assertEquals(Snake.Direction.values()[k], q.poll());
+        assertEquals(Snake.Direction.RIGHT, q.poll());
+        assertNull(q.poll());
+    }
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        InputQueue q = new InputQueue(5);
+        int accepted = 0;
+        while (q.offer(Snake.Direction.UP)) accepted++;
+        assertEquals(8, accepted);
+    }
+
+    // Wraps the ring many times with producers on other threads: nothing is lost, duplicated or reordered per producer
+    @Test
+    void concurrentProducersKeepTheirOrder() throws InterruptedException {
+        InputQueue q = new InputQueue(16);
+        int producers = 3, perProducer = 5_000;
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            Thread t = new Thread(() -> {
+                try { go.await(); } catch (InterruptedException e) { return; }
+                for (int k = 0; k < perProducer; k++) {
+                    // The stamp carries producer and sequence number
+                    while (!q.offer(Snake.Direction.values()[id], (long) id << 32 | k)) Thread.yield();
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        go.countDown();
+
+        int[] next = new int[producers];
+        for (int received = 0; received < producers * perProducer; ) {
+            Snake.Direction d = q.poll();
+            if (d == null) { Thread.yield(); continue; }
+            long stamp = q.getLastStamp();
+            int id = (int) (stamp >>> 32);
+            assertEquals(Snake.Direction.values()[id], d);
+            assertEquals(next[id]++, (int) stamp);
+            received++;
+        }
+        for (Thread t : threads) t.join();
+        assertNull(q.poll());
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchHistoryTest {
+    // Records with two players: length int, fixed fields, then a (color, score) pair per player
+    private static final int FIRST = 8, RECORD = 4 + 45 + 2 * 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesSurviveAReopen() throws IOException {
+        Path file = dir.resolve("sub/history.snkh");
+        MatchHistory history = MatchHistory.open(file);
+        history.submit(match(1000, "HARD", 7, 3));
+        history.submit(match(2000, "HARD", 12, 1));
+        history.submit(match(3000, "EASY", 4, 9));
+        history.close(); // waits for the queued appends
+        assertEquals(3, history.getMatches());
+
+        MatchHistory reopened = reopen(file);
+        assertEquals(3, reopened.getMatches());
+        MatchHistory.Match second = reopened.read(FIRST + RECORD);
+        assertEquals(2000, second.endedAt());
+        assertEquals("HARD", second.difficulty());
+        assertArrayEquals(new int[] {12, 1}, second.scores());
+
+        // Keyboard player 1 only (humans = 1), best first
+        List<MatchHistory.Score> hard = reopened.leaderboard("HARD", 2, 10);
+        assertEquals(2, hard.size());
+        assertEquals(12, hard.get(0).score());
+        assertEquals(7, hard.get(1).score());
+        assertTrue(hard.get(0).won());
+        assertEquals(1, reopened.leaderboard("EASY", 2, 10).size());
+        assertTrue(reopened.leaderboard("EASY", 3, 10).isEmpty());
+    }
+
+    // A crash can leave a record whose length field is garbage; the log ends before it,
+    // and the next match is appended over it
+    @Test
+    void tornRecordEndsTheLog() throws IOException {
+        Path file = dir.resolve("history.snkh");
+        MatchHistory history = MatchHistory.open(file);
+        for (int m = 0; m < 3; m++) history.submit(match(m, "NORMAL", m, 0));
+        history.close();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).putInt(0, 1_000_000_000), FIRST + 2 * RECORD);
+        }
+        MatchHistory torn = reopen(file);
+        assertEquals(2, torn.getMatches());
+
+        torn = MatchHistory.open(file);
+        torn.submit(match(99, "NORMAL", 5, 0));
+        torn.close();
+        MatchHistory repaired = reopen(file);
+        assertEquals(3, repaired.getMatches());
+        assertEquals(99, repaired.read(FIRST + 2 * RECORD).endedAt());
+    }
+
+    @Test
+    void rejectsAForeignFile() throws IOException {
+        Path file = dir.resolve("other.bin");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(16).putInt(0, 0x12345678));
+        }
+        MatchHistory history = reopen(file);
+        assertEquals(0, history.getMatches());
+        history.submit(match(1, "EASY", 1, 0)); // ignored: the history is disabled
+        assertEquals(0, history.getMatches());
+    }
+
+    // Opens the file and waits until it is loaded (close() lets the writer thread finish first)
+    private static MatchHistory reopen(Path file) throws IOException {
+        MatchHistory history = MatchHistory.open(file);
+        history.close();
+        return history;
+    }
+
+    // Two players, one on the keyboard; player 1 wins when it has the better score
+    private static MatchHistory.Match match(long endedAt, String difficulty, int score1, int score2) {
+        return new MatchHistory.Match(endedAt, 5000, 50, difficulty, 33, 30, 1, score1 > score2 ? 1 : 2,
+                new int[] {0xFF0000, 0x00FF00}, new int[] {score1, score2});
+    }
+}
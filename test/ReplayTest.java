@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTest {
+    @TempDir
+    Path dir;
+
+    // Records randomly steered matches, then checks that playback ends in the same state and that seeking
+    // backwards and forwards (through keyframes) lands on the states seen while recording
+    @Test
+    void recordedMatchesPlayBackAndSeek() throws IOException {
+        for (long seed = 1; seed <= 5; seed++) {
+            GameEngine e = new GameEngine(100, 100, seed);
+            e.start(2, 100, 3, 4);
+            Path file = dir.resolve("match" + seed + ".snkr");
+            ReplayWriter writer = new ReplayWriter(file, e);
+            e.addListener(writer);
+
+            TreeMap<Long, String> seen = new TreeMap<>();
+            Random pilot = new Random(seed);
+            while (!e.isGameOver() && e.getSteps() < 20_000) {
+                if (e.getSteps() % 250 == 0) seen.put(e.getSteps(), GameEngineTest.signature(e));
+                for (int i = 0; i < e.getPlayers(); i++) if (e.isAlive(i)) BatchRunner.steer(e, i, pilot);
+                e.step();
+            }
+            writer.close();
+            String last = GameEngineTest.signature(e);
+
+            ReplayPlayer player = new ReplayPlayer(file);
+            assertEquals(e.getSteps(), player.getEndStep());
+            while (player.step()) {}
+            assertTrue(player.isDone());
+            assertEquals(last, GameEngineTest.signature(player.getEngine()), "seed " + seed);
+
+            for (long step : seen.descendingKeySet()) {
+                player.seek(step);
+                assertEquals(seen.get(step), GameEngineTest.signature(player.getEngine()), "seed " + seed + " back to " + step);
+            }
+            player.seek(e.getSteps());
+            assertEquals(last, GameEngineTest.signature(player.getEngine()), "seed " + seed + " forward to the end");
+        }
+    }
+}
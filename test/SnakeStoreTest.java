@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnakeStoreTest {
+
+    @Test
+    void bodyIsADequeHeadFirst() {
+        SnakeStore store = new SnakeStore();
+        store.reset(1);
+        store.init(0, Snake.Direction.RIGHT, 100, 4);
+        store.addLast(0, 7);
+        store.addFirst(0, 8);
+        store.addFirst(0, 9);
+        assertEquals(3, store.length(0));
+        assertEquals(9, store.head(0));
+        assertEquals(7, store.tail(0));
+        assertEquals(8, store.cell(0, 1));
+        assertEquals(7, store.removeLast(0));
+        assertEquals(8, store.tail(0));
+    }
+
+    // Snakes that move (ring heads wrap around) and grow in turns, so rings move to larger regions again and
+    // again and the pool is compacted many times; every body must come through intact and in order
+    @Test
+    void growthAndCompactionKeepBodies() {
+        int n = 12;
+        SnakeStore store = new SnakeStore();
+        store.reset(n);
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Integer>[] model = new ArrayDeque[n];
+        for (int i = 0; i < n; i++) {
+            store.init(i, Snake.Direction.UP, 100, 4);
+            model[i] = new ArrayDeque<>();
+            for (int k = 0; k < 4; k++) {
+                store.addLast(i, i * 1_000_000 + k);
+                model[i].addLast(i * 1_000_000 + k);
+            }
+        }
+
+        Random rng = new Random(3);
+        int cell = 100;
+        for (int op = 0; op < 200_000; op++) {
+            int i = rng.nextInt(n);
+            // Snake i grows with a probability that rises with i, so regions are abandoned at different rates
+            boolean grow = rng.nextInt(64) < 2 + i;
+            store.addFirst(i, cell);
+            model[i].addFirst(cell++);
+            if (!grow) assertEquals((int) model[i].removeLast(), store.removeLast(i));
+            if (op % 997 == 0) assertBodies(store, model);
+        }
+        assertBodies(store, model);
+    }
+
+    @Test
+    void resetStartsOver() {
+        SnakeStore store = new SnakeStore();
+        store.reset(2);
+        store.init(0, Snake.Direction.LEFT, 100, 16);
+        store.init(1, Snake.Direction.LEFT, 100, 16);
+        for (int k = 0; k < 100; k++) store.addFirst(0, k);
+        assertEquals(2, store.aliveCount());
+        store.setAlive(1, false);
+        assertEquals(1, store.aliveCount());
+
+        store.reset(1);
+        assertEquals(1, store.count());
+        assertEquals(0, store.aliveCount());
+        store.init(0, Snake.Direction.DOWN, 50, 1);
+        assertEquals(1, store.aliveCount());
+        assertEquals(0, store.length(0));
+        assertEquals(Snake.Direction.DOWN, store.dir(0));
+        assertEquals(50, store.speed(0));
+    }
+
+    private static void assertBodies(SnakeStore store, ArrayDeque<Integer>[] model) {
+        for (int i = 0; i < model.length; i++) {
+            assertEquals(model[i].size(), store.length(i), "length of snake " + i);
+            Iterator<Integer> it = model[i].iterator();
+            for (int k = 0; it.hasNext(); k++) assertEquals((int) it.next(), store.cell(i, k), "snake " + i + " cell " + k);
+        }
+    }
+}